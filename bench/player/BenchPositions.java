@@ -0,0 +1,138 @@
+package player;
+
+/**
+ *  BenchPositions is the fixed corpus of positions the benchmarks run on.
+ *  The first group are the test boards from the old GameBoard.main(), chip
+ *  for chip (including its repeated addChip() calls, which are no-ops);
+ *  the last three come from one seeded random game, in the middle of the
+ *  add phase and twice in the step phase.  Each position records the side
+ *  whose moves are measured.  The benchmarks name the positions they run
+ *  on in their @Param lists.
+ */
+public class BenchPositions {
+
+	/**
+   	* position() builds one of the corpus positions.
+   	* Unusual Conditions: throws IllegalArgumentException for an unknown name
+   	* @param name is the position's name, as in the switch below
+   	* @return returns a new GameBoard holding the position, with the side to
+   	* move set
+   	**/
+	public static GameBoard position(String name) {
+		switch (name) {
+		case "testBoard":
+			return chips(Chip.BLACK, new int[][] { {0, 1, 1}, {0, 2, 2} });
+		case "testBoard2":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 6, 0}, {0, 6, 2}, {0, 5, 2}, {0, 3, 4}, {0, 2, 4}, {0, 2, 6}, {0, 2, 7},
+				{0, 4, 6}, {0, 4, 7} });
+		case "testBoard3":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 2, 0}, {0, 6, 0}, {0, 6, 5}, {0, 5, 5}, {0, 5, 7}, {0, 4, 7} });
+		case "testBoard4":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 2, 0}, {0, 4, 2}, {0, 1, 5}, {0, 6, 5}, {0, 6, 2}, {0, 4, 7} });
+		case "testBoard5":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 2, 0}, {0, 2, 5}, {0, 3, 5}, {0, 3, 3}, {0, 5, 5}, {0, 4, 5}, {0, 3, 5},
+				{0, 5, 5}, {0, 6, 5}, {0, 2, 7}, {0, 4, 7} });
+		case "testBoard6":
+			return chips(Chip.WHITE, new int[][] {
+				{1, 0, 3}, {1, 0, 6}, {1, 1, 3}, {1, 2, 5}, {1, 2, 6}, {1, 4, 3}, {1, 5, 1},
+				{1, 5, 6}, {1, 6, 3}, {1, 7, 2},
+				{0, 3, 0}, {0, 2, 1}, {0, 6, 1}, {0, 4, 2}, {0, 2, 4}, {0, 6, 5}, {0, 3, 6},
+				{0, 1, 7}, {0, 4, 7}, {0, 6, 7} });
+		case "board3":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 6, 0}, {0, 2, 0}, {0, 4, 2}, {0, 3, 3}, {0, 3, 5}, {0, 5, 7} });
+		case "board4":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 2, 0}, {0, 4, 2}, {0, 6, 0}, {0, 6, 5}, {0, 5, 5}, {0, 5, 7} });
+		case "board5":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 4, 2}, {0, 4, 4}, {0, 4, 5}, {1, 4, 6}, {1, 5, 3}, {1, 5, 6}, {0, 6, 0},
+				{0, 6, 1}, {0, 6, 3}, {0, 6, 4}, {0, 6, 6}, {0, 6, 7} });
+		case "testBoard7":
+			return chips(Chip.BLACK, new int[][] {
+				{0, 1, 0}, {0, 1, 1}, {0, 3, 1}, {0, 3, 2}, {0, 6, 5} });
+		case "testBoard8":
+			return chips(Chip.WHITE, new int[][] {
+				{0, 1, 0}, {0, 1, 1}, {0, 3, 2}, {0, 6, 5}, {0, 6, 7}, {1, 0, 5}, {1, 0, 3} });
+		case "testBoard9":
+			return chips(Chip.WHITE, new int[][] {
+				{0, 1, 0}, {1, 0, 1}, {1, 6, 1}, {1, 2, 2}, {1, 2, 3}, {0, 3, 4}, {0, 6, 4},
+				{1, 7, 4}, {0, 1, 6}, {0, 6, 7} });
+		case "testBoard10":
+			return chips(Chip.WHITE, new int[][] {
+				{0, 2, 0}, {1, 0, 1}, {0, 3, 1}, {1, 5, 1}, {1, 4, 2}, {0, 5, 3}, {1, 0, 4},
+				{1, 1, 5}, {0, 3, 5}, {0, 2, 7} });
+		case "testBoard11":
+			return chips(Chip.WHITE, new int[][] {
+				{1, 0, 2}, {0, 1, 1}, {1, 1, 2}, {1, 1, 5}, {0, 1, 6}, {0, 2, 1}, {0, 4, 1},
+				{1, 4, 2}, {1, 4, 5}, {0, 5, 1} });
+		case "midgame":
+			return diagram(Chip.WHITE,
+				"...b.b..",
+				"....w...",
+				"w.w..b..",
+				"..b.bw..",
+				".w......",
+				"...ww...",
+				".bb.....",
+				"........");
+		case "stepEarly":
+			return diagram(Chip.WHITE,
+				"..bb.b..",
+				"....w...",
+				"w.w..b.w",
+				"..b.bw..",
+				".wb....w",
+				"w..ww...",
+				".bb.....",
+				"......b.");
+		case "stepLate":
+			return diagram(Chip.BLACK,
+				"..bb..b.",
+				"..w...b.",
+				"w......w",
+				"..b..w..",
+				".wb..b.w",
+				"w..w..w.",
+				"..b.w...",
+				".b....b.");
+		default:
+			throw new IllegalArgumentException("no position " + name);
+		}
+	}
+	/**
+   	* chips() builds a position from {color, x, y} triples, in order.
+   	* @param side is the side to move, chips are the chips to add
+   	* @return returns the new GameBoard
+   	**/
+	protected static GameBoard chips(int side, int[][] chips) {
+		GameBoard board = new GameBoard();
+		for (int[] c : chips) {
+			board.addChip(c[0], c[1], c[2]);
+		}
+		board.setSideToMove(side);
+		return board;
+	}
+	/**
+   	* diagram() builds a position from eight rows, y = 0 first, where 'b' is
+   	* a black chip, 'w' a white chip and '.' an empty square.
+   	* @param side is the side to move, rows are the rows of the board
+   	* @return returns the new GameBoard
+   	**/
+	protected static GameBoard diagram(int side, String... rows) {
+		GameBoard board = new GameBoard();
+		for (int y = 0; y < GameBoard.DIMENSION; y++) {
+			for (int x = 0; x < GameBoard.DIMENSION; x++) {
+				char c = rows[y].charAt(x);
+				if (c == 'b') { board.addChip(Chip.BLACK, x, y); }
+				if (c == 'w') { board.addChip(Chip.WHITE, x, y); }
+			}
+		}
+		board.setSideToMove(side);
+		return board;
+	}
+}
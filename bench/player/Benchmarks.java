@@ -0,0 +1,37 @@
+package player;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Benchmarks runs the JMH benchmarks in this directory (GameBoardBench and
+ *  MachinePlayerBench) with the gc profiler always on, so every result has
+ *  its allocation rate (gc.alloc.rate.norm, bytes per op) next to its time
+ *  per op.  Any JMH command-line option may be given, e.g. a benchmark
+ *  regex or "-p position=midgame".
+ *
+ *  There is no build file; with the JMH 1.37 jars (jmh-core,
+ *  jmh-generator-annprocess, jopt-simple, commons-math3) in $JMH, from the
+ *  project root:
+ *
+ *    javac -cp "$JMH/*" -processor org.openjdk.jmh.generators.BenchmarkProcessor
+ *        -d bench/classes player/*.java bench/player/*.java
+ *    java -cp "bench/classes:$JMH/*" player.Benchmarks [options]
+ */
+public class Benchmarks {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions command = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(command);
+		if (command.getIncludes().isEmpty()) {
+			options.include("player\\..*Bench");
+		}
+		options.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,180 @@
+package player;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *  GameBoardBench times the board's hot paths on the BenchPositions corpus:
+ *  move validation, move generation, network detection, connection finding
+ *  and static evaluation.  Each state class below picks the positions its
+ *  benchmarks make sense on (add-phase or step-phase positions, or all of
+ *  them).  Run with the gc profiler (see Benchmarks) for allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardBench {
+
+	/**
+	 *  Any corpus position, with every add move (or, in the step phase,
+	 *  every step move of every chip of the side to move) as a candidate.
+	 */
+	@State(Scope.Thread)
+	public static class AnyPosition {
+
+		@Param({"testBoard", "testBoard2", "testBoard3", "testBoard4", "testBoard5", "testBoard6",
+				"board3", "board4", "board5", "testBoard7", "testBoard8", "testBoard9",
+				"testBoard10", "testBoard11", "midgame", "stepEarly", "stepLate"})
+		public String position;
+
+		protected GameBoard board;
+		protected int side;
+		protected int[] candidates;
+		protected Chip[] chips;
+		protected MachinePlayer player;
+
+		@Setup
+		public void setup() {
+			board = BenchPositions.position(position);
+			side = board.sideToMove();
+			int squares = GameBoard.DIMENSION * GameBoard.DIMENSION;
+			if (board.chipCount(side) == 10) {
+				candidates = new int[10 * squares];
+				int count = 0;
+				for (long c = board.bits[side]; c != 0; c &= c - 1) {
+					int from = Long.numberOfTrailingZeros(c);
+					for (int to = 0; to < squares; to++) {
+						candidates[count++] = Move.STEP << 12 | from << 6 | to;
+					}
+				}
+			}
+			else {
+				candidates = new int[squares];
+				for (int to = 0; to < squares; to++) {
+					candidates[to] = Move.ADD << 12 | to;
+				}
+			}
+			chips = new Chip[board.chipCount(side)];
+			int count = 0;
+			for (long c = board.bits[side]; c != 0; c &= c - 1) {
+				chips[count++] = Chip.chipAt(side, Long.numberOfTrailingZeros(c));
+			}
+			player = new MachinePlayer(side);
+		}
+	}
+
+	/**
+	 *  A position where the side to move still adds chips.
+	 */
+	@State(Scope.Thread)
+	public static class AddPosition {
+
+		@Param({"testBoard", "testBoard2", "testBoard3", "testBoard4", "testBoard5", "board3",
+				"board4", "board5", "testBoard7", "testBoard8", "testBoard9", "testBoard10",
+				"testBoard11", "midgame"})
+		public String position;
+
+		protected GameBoard board;
+		protected int side;
+		protected int[] moves = new int[GameBoard.MAX_MOVES];
+
+		@Setup
+		public void setup() {
+			board = BenchPositions.position(position);
+			side = board.sideToMove();
+		}
+	}
+
+	/**
+	 *  A position where the side to move has all ten chips down.
+	 */
+	@State(Scope.Thread)
+	public static class StepPosition {
+
+		@Param({"testBoard6", "stepEarly", "stepLate"})
+		public String position;
+
+		protected GameBoard board;
+		protected int side;
+		protected int[] moves = new int[GameBoard.MAX_MOVES];
+
+		@Setup
+		public void setup() {
+			board = BenchPositions.position(position);
+			side = board.sideToMove();
+		}
+	}
+
+	/* isValidMove() on every candidate move of the position (one op is the
+	 * whole sweep: 64 add moves, or 640 step moves). */
+	@Benchmark
+	public int isValidMove(AnyPosition p) throws InvalidNodeException {
+		int valid = 0;
+		for (int m : p.candidates) {
+			if (p.board.isValidMove(p.side, m)) { valid++; }
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int moveFinderAdd(AddPosition p) throws InvalidNodeException {
+		return p.board.moveFinder(p.side, Move.ADD, p.moves);
+	}
+
+	@Benchmark
+	public int moveFinderStep(StepPosition p) throws InvalidNodeException {
+		return p.board.moveFinder(p.side, Move.STEP, p.moves);
+	}
+
+	/* hasValidNetwork() for both sides with an empty network cache, so the
+	 * search itself is timed. */
+	@Benchmark
+	public boolean hasValidNetwork(AnyPosition p) throws InvalidNodeException {
+		p.board.networkCache.clear();
+		return p.board.hasValidNetwork(Chip.BLACK) | p.board.hasValidNetwork(Chip.WHITE);
+	}
+
+	/* hasValidNetwork() for both sides answered from the network cache. */
+	@Benchmark
+	public boolean hasValidNetworkCached(AnyPosition p) throws InvalidNodeException {
+		return p.board.hasValidNetwork(Chip.BLACK) | p.board.hasValidNetwork(Chip.WHITE);
+	}
+
+	/* getConnections() for every chip of the side to move. */
+	@Benchmark
+	public int getConnections(AnyPosition p) throws InvalidNodeException {
+		int total = 0;
+		for (Chip chip : p.chips) {
+			total += chip.getConnections(p.board, null).length();
+		}
+		return total;
+	}
+
+	/* The same connections as masks, without building DLists. */
+	@Benchmark
+	public int connectionMask(AnyPosition p) {
+		int total = 0;
+		for (Chip chip : p.chips) {
+			total += Long.bitCount(chip.connectionMask(p.board, null));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public double evalBoard(AnyPosition p) throws InvalidNodeException {
+		return p.board.evalBoard(p.side, p.player, 1);
+	}
+}
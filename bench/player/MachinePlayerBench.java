@@ -0,0 +1,78 @@
+package player;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *  MachinePlayerBench times a whole chooseMove() at fixed depths 1 to 4 on
+ *  the corpus positions that are not over yet.  Each op is a cold search of
+ *  one move with the player's default settings (random opening off):  the
+ *  board is a fresh copy of the position and the transposition table and
+ *  network cache are empty.
+ *
+ *  A depth 1 search takes only microseconds, too little for a setup before
+ *  every call, so each invocation searches BATCH players that were all reset
+ *  beforehand and JMH divides the time by BATCH.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MachinePlayerBench {
+
+	@Param({"testBoard7", "testBoard8", "testBoard9", "testBoard10", "midgame", "stepEarly", "stepLate"})
+	public String position;
+
+	@Param({"1", "2", "3", "4"})
+	public int depth;
+
+	/* Number of cold searches timed together in one invocation. */
+	public static final int BATCH = 16;
+
+	protected GameBoard board;
+	protected MachinePlayer[] players;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		board = BenchPositions.position(position);
+		players = new MachinePlayer[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			players[i] = new MachinePlayer(board.sideToMove(), depth);
+			players[i].randomOpening = false;
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void reset() {
+		for (MachinePlayer player : players) {
+			player.gameboard.copyFrom(board);
+			player.gameboard.networkCache.clear();
+			player.table.clear();
+			player.gamePlies = 0;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void chooseMove(Blackhole blackhole) {
+		for (MachinePlayer player : players) {
+			blackhole.consume(player.chooseMove());
+		}
+	}
+}
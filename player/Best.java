@@ -0,0 +1,17 @@
+package player;
+
+/**
+ *  A Best is what a search returns: the best move it found and that move's
+ *  score from the searching player's point of view.
+ */
+class Best {
+
+  protected Move move;
+  protected double score;
+
+  public Best() {
+  	move = null;
+  	score = 0;
+  }
+
+}
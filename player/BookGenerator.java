@@ -0,0 +1,118 @@
+package player;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  BookGenerator fills an OpeningBook by deep offline search.  It walks the
+ *  opening tree from the empty board: while a side has at most one chip it
+ *  follows every goal square the machine player might open on (and the
+ *  searched best move), after that only the searched best move, up to a
+ *  given number of plies.  Every position on the way is searched to a fixed
+ *  depth with the random opening turned off, and its best move and score
+ *  are written to the book.  Positions are keyed by their canonical form,
+ *  so a mirror image or rotation of a position already searched is skipped.
+ *
+ *  Usage: java player.BookGenerator [file] [plies] [depth]
+ */
+public class BookGenerator {
+
+	protected int plies;
+	protected MachinePlayer[] players = new MachinePlayer[2];
+	protected Map<Long, Long> entries = new HashMap<Long, Long>();
+
+	/**
+   	* BookGenerator() returns a generator for books "plies" plies deep,
+   	* searched to "depth".
+   	* @param plies is the number of plies covered, depth is the search depth
+   	* @return this method has no return value
+   	**/
+	public BookGenerator(int plies, int depth) {
+		this.plies = plies;
+		for (int side = 0; side < 2; side++) {
+			players[side] = new MachinePlayer(side, depth);
+			players[side].randomOpening = false;
+		}
+	}
+	/**
+   	* expand() searches a position, records it and expands its book moves.
+   	* @param board is the position, side is the side to move, ply is the
+   	* number of moves played so far
+   	* @return no return value
+   	**/
+	protected void expand(GameBoard board, int side, int ply) throws InvalidNodeException {
+		board.setSideToMove(side);
+		if (ply >= plies || board.hasValidNetwork(Chip.BLACK) || board.hasValidNetwork(Chip.WHITE)) {
+			return;
+		}
+		int symmetry = board.canonicalTransform();
+		long key = board.symmetricKey(symmetry);
+		if (entries.containsKey(key)) {
+			return;
+		}
+		MachinePlayer player = players[side];
+		player.gameboard.copyFrom(board);
+		player.table.newSearch();
+		player.gameboard.newSearch();
+		Best best = player.searchRoot(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+		if (best.move == null) {
+			return;
+		}
+		int bestMove = PackedMove.fromMove(best.move);
+		entries.put(key, (long) PackedMove.transform(bestMove, symmetry) << 32 | (Float.floatToIntBits((float) best.score) & 0xFFFFFFFFL));
+		if (entries.size() % 100 == 0) {
+			System.out.println(entries.size() + " positions");
+		}
+
+		int[] moves = new int[GameBoard.DIMENSION];
+		int count = 0;
+		moves[count++] = bestMove;
+		int numChips = board.chipCount(side);
+		if (numChips <= 1) {
+			// Every square the random opening in GameBoard.search() may pick.
+			int far = (numChips == 0) ? 0 : GameBoard.DIMENSION - 1;
+			for (int i = 1; i < GameBoard.DIMENSION - 1; i++) {
+				int m = (side == Chip.BLACK) ? PackedMove.add(i, far) : PackedMove.add(far, i);
+				if (m != bestMove && board.isValidMove(side, m)) { moves[count++] = m; }
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			board.performMove(side, moves[i]);
+			expand(board, (side + 1) % 2, ply + 1);
+			board.undoMove(side, moves[i]);
+		}
+	}
+	/**
+   	* write() writes the positions found so far as a book file.
+   	* @param path is the file to write
+   	* @return no return value
+   	**/
+	public void write(String path) throws IOException {
+		long[] keys = new long[entries.size()];
+		int count = 0;
+		for (Long key : entries.keySet()) {
+			keys[count++] = key;
+		}
+		Arrays.sort(keys);
+		int[] moves = new int[count];
+		float[] scores = new float[count];
+		for (int i = 0; i < count; i++) {
+			long data = entries.get(keys[i]);
+			moves[i] = (int) (data >>> 32);
+			scores[i] = Float.intBitsToFloat((int) data);
+		}
+		OpeningBook.write(path, keys, moves, scores, count);
+	}
+
+	public static void main(String[] args) throws Exception {
+		String path = (args.length > 0) ? args[0] : "book.bin";
+		int plies = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+		int depth = (args.length > 2) ? Integer.parseInt(args[2]) : 4;
+		BookGenerator generator = new BookGenerator(plies, depth);
+		generator.expand(new GameBoard(), Chip.WHITE, 0);
+		generator.write(path);
+		System.out.println("wrote " + generator.entries.size() + " positions to " + path);
+	}
+}
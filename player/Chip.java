@@ -10,12 +10,54 @@ public class Chip {
 	protected int y;
 	protected int color;
 
+	/* One shared Chip per color and square, so the board never allocates a
+	 * Chip when a move is made or a square is looked up. */
+	private static final Chip[][] CHIPS = new Chip[2][GameBoard.DIMENSION * GameBoard.DIMENSION];
+
+	static {
+		for (int sq = 0; sq < GameBoard.DIMENSION * GameBoard.DIMENSION; sq++) {
+			CHIPS[BLACK][sq] = new Chip(BLACK, sq % GameBoard.DIMENSION, sq / GameBoard.DIMENSION);
+			CHIPS[WHITE][sq] = new Chip(WHITE, sq % GameBoard.DIMENSION, sq / GameBoard.DIMENSION);
+		}
+	}
+
+	/* RAYS[dir][sq] is the mask of squares seen from sq looking in direction
+	 * dir, not including sq itself.  Directions 0-3 point toward higher square
+	 * indices and directions 4-7 are their opposites (dir ^ 4), so the nearest
+	 * chip on a ray is its lowest set bit for 0-3 and its highest for 4-7. */
+	protected static final int[] DX = {1, -1, 0, 1, -1, 1, 0, -1};
+	protected static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+	protected static final long[][] RAYS = new long[8][GameBoard.DIMENSION * GameBoard.DIMENSION];
+
+	static {
+		for (int dir = 0; dir < 8; dir++) {
+			for (int sq = 0; sq < GameBoard.DIMENSION * GameBoard.DIMENSION; sq++) {
+				int x = sq % GameBoard.DIMENSION + DX[dir];
+				int y = sq / GameBoard.DIMENSION + DY[dir];
+				while (x >= 0 && y >= 0 && x < GameBoard.DIMENSION && y < GameBoard.DIMENSION) {
+					RAYS[dir][sq] |= 1L << GameBoard.square(x, y);
+					x += DX[dir];
+					y += DY[dir];
+				}
+			}
+		}
+	}
+
 	public Chip(int color, int x, int y) {
 		this.color = color;
 		this.x = x;
 		this.y = y;
 	}
 	/**
+    * chipAt() returns the shared Chip of the given color on the given square
+    * @param color is the color of the chip, sq is the square index
+    * (see GameBoard.square())
+    * @return returns the Chip for that color and square
+   	**/
+	protected static Chip chipAt(int color, int sq) {
+		return CHIPS[color][sq];
+	}
+	/**
     * getNeighbors finds all neighbors of the current chip in order to identify 
     * clusters
     * @param takes in the current gameboard state and the side for which we are 
@@ -50,50 +92,47 @@ public class Chip {
 	public DList getConnections(GameBoard gameboard, Chip prev) throws InvalidNodeException {
 
 		DList connectedChips = new DList();
-		int x = this.x; 
-		int y = this.y;
-		int fromX = this.x;
-		int fromY = this.y;
-		int toX = this.x;
-		int toY = this.y;
-		if (prev != null) {
-
-			if ((prev.x > this.x && prev.y > this.y) || (prev.x < this.x && prev.y < this.y)) {
-				fromY = this.y + 1; toY = this.y - 1;
-				fromX = this.x + 1; toX = this.x - 1;
-			}
-			else if ((prev.x < this.x && prev.y > this.y) || (prev.x > this.x && prev.y < this.y)) {
-				fromY = this.y - 1; toY = this.y + 1;
-				fromX = this.x + 1; toX = this.x - 1;
-			}
-			else if (prev.x == this.x) { toY = this.y + 1; fromY = this.y - 1; }
-			else if (prev.y == this.y) { toX = this.x + 1; fromX = this.x - 1; }
+		for (long mask = connectionMask(gameboard, prev); mask != 0; mask &= mask - 1) {
+			connectedChips.insertBack(chipAt(color, Long.numberOfTrailingZeros(mask)));
 		}
-
-
-		for (int i = -1; i < 2; i ++) {
-			inner:
-			for (int j = -1; j < 2; j ++) {
-				if (i == 0 && j == 0)  continue;
-				while (x + i >= 0 && y + j >= 0 && x + i < GameBoard.DIMENSION && y + j < GameBoard.DIMENSION) {
-					x = x + i; y = y + j;
-					if ((x == fromX && y == fromY) || (x == toX && y == toY)) break;
-					else if (gameboard.cellContents(x, y) != null) {
-						if (gameboard.cellContents(x, y).color == this.color) {
-							connectedChips.insertBack(gameboard.cellContents(x, y));
-							break;
-						}
-						else if (gameboard.cellContents(x, y).color == (this.color+1)%2) {
-							break;
-						}
-					}
-				}
-				x = this.x; y = this.y;
-			}
-		}
-
 		return connectedChips;
 	}
+	/**
+   	* connectionMask() is getConnections() without the DList: it returns the
+   	* connected chips as a mask of squares and allocates nothing.
+   	* @param takes in the current gameboard state and the previous chip in the
+   	* network (or null)
+   	* @return returns the mask of squares holding chips "this" chip is connected to
+   	**/
+	public long connectionMask(GameBoard gameboard, Chip prev) {
+		int prevSq = (prev == null) ? -1 : GameBoard.square(prev.x, prev.y);
+		return connectionMask(gameboard, color, GameBoard.square(x, y), prevSq);
+	}
+	/**
+   	* connectionMask() finds the chips of the given color that a chip on
+   	* square sq is connected to, using the ray tables and one first-blocker
+   	* scan per direction.  If prevSq is on one of sq's lines, that whole line
+   	* (both directions) is skipped, since a network may neither turn back nor
+   	* pass straight through a chip.
+   	* @param takes in the current gameboard state, the chip's color and square,
+   	* and the square of the previous chip in the network (-1 for none)
+   	* @return returns the mask of squares holding connected chips
+   	**/
+	protected static long connectionMask(GameBoard gameboard, int color, int sq, int prevSq) {
+		long own = gameboard.bits[color];
+		long occupied = own | gameboard.bits[(color + 1) % 2];
+		long connected = 0;
+		for (int dir = 0; dir < 4; dir++) {
+			long forward = RAYS[dir][sq];
+			long backward = RAYS[dir ^ 4][sq];
+			if (prevSq >= 0 && ((forward | backward) >>> prevSq & 1L) != 0) { continue; }
+			long blockers = forward & occupied;
+			if (blockers != 0) { connected |= Long.lowestOneBit(blockers) & own; }
+			blockers = backward & occupied;
+			if (blockers != 0) { connected |= Long.highestOneBit(blockers) & own; }
+		}
+		return connected;
+	}
 
 	public static void main (String[] args) {
 		GameBoard testBoard = new GameBoard();
@@ -1,14 +1,190 @@
 package player;
 
 import java.lang.Math.*;
+import java.util.Random;
 
 public class GameBoard {
 	
 	protected static final int DIMENSION = 8;
 
-	protected Chip[][] grid;
-	protected DList white_chips;
-	protected DList black_chips;
+	/* Scores at least this large come from a completed network.  They depend
+	 * on the distance from the root, so the transposition table never cuts
+	 * off on them. */
+	protected static final double NETWORK_THRESHOLD = 1.0e6;
+
+	/* Bounds on the search: plies below the root, and moves per position
+	 * (ten chips stepping to at most 64 squares each). */
+	protected static final int MAX_PLY = 64;
+	protected static final int MAX_MOVES = 10 * DIMENSION * DIMENSION;
+	/* How many plies quiesce() may search past the horizon. */
+	protected static final int QUIESCENCE_PLIES = 2;
+	/* A timed search checks the clock once per CLOCK_INTERVAL units of work
+	 * (see clockTick()). */
+	protected static final int CLOCK_INTERVAL = 1024;
+
+	/* Forward pruning (see search()): the extra plies a null move takes off,
+	 * the moves searched at full depth before late moves are reduced and the
+	 * depth left below which they are not, and how far below alpha (above
+	 * beta) the static score must be for futility pruning one ply above the
+	 * horizon. */
+	protected static final int NULL_REDUCTION = 2;
+	protected static final int LMR_MOVES = 3;
+	protected static final int LMR_DEPTH = 3;
+	protected static final double FUTILITY_MARGIN = 40;
+
+	/* Score of a position that repeats one already on the search path or
+	 * in the game: a draw, since the side that repeated could do so again. */
+	protected static final double DRAW_SCORE = 0;
+
+	/* The whole position lives in two 64-bit occupancy masks, one per color
+	 * (indexed by Chip.BLACK / Chip.WHITE).  Square (x, y) is bit y * 8 + x. */
+	protected long[] bits;
+
+	/* Zobrist keys: one random 64-bit value per color and square, plus one
+	 * for "Black to move".  The seed is fixed so keys are stable between runs. */
+	protected static final long[][] ZOBRIST = new long[2][DIMENSION * DIMENSION];
+	protected static final long ZOBRIST_BLACK_TO_MOVE;
+
+	/* The symmetries the rules preserve: the identity, mirroring across the
+	 * middle column (x -> 7 - x, which swaps White's goals), mirroring across
+	 * the middle row (y -> 7 - y, which swaps Black's goals) and the 180 degree
+	 * rotation (both).  SYMMETRY[t][sq] is the square transform t sends sq to;
+	 * each transform is its own inverse. */
+	protected static final int SYMMETRIES = 4;
+	protected static final int[][] SYMMETRY = new int[SYMMETRIES][DIMENSION * DIMENSION];
+
+	/* SYMMETRIC_ZOBRIST[color][sq * SYMMETRIES + t] is the Zobrist key of a
+	 * chip on sq after symmetry t, laid out so that addChip() and removeChip()
+	 * find all four of a square's keys together. */
+	protected static final long[][] SYMMETRIC_ZOBRIST = new long[2][SYMMETRIES * DIMENSION * DIMENSION];
+
+	static {
+		Random random = new Random(0x61B2013L);
+		for (int sq = 0; sq < DIMENSION * DIMENSION; sq++) {
+			ZOBRIST[Chip.BLACK][sq] = random.nextLong();
+			ZOBRIST[Chip.WHITE][sq] = random.nextLong();
+		}
+		ZOBRIST_BLACK_TO_MOVE = random.nextLong();
+		for (int t = 0; t < SYMMETRIES; t++) {
+			for (int sq = 0; sq < DIMENSION * DIMENSION; sq++) {
+				int x = sq % DIMENSION;
+				int y = sq / DIMENSION;
+				if ((t & 1) != 0) { x = DIMENSION - 1 - x; }
+				if ((t & 2) != 0) { y = DIMENSION - 1 - y; }
+				SYMMETRY[t][sq] = y * DIMENSION + x;
+			}
+		}
+		for (int sq = 0; sq < DIMENSION * DIMENSION; sq++) {
+			for (int t = 0; t < SYMMETRIES; t++) {
+				SYMMETRIC_ZOBRIST[Chip.BLACK][sq * SYMMETRIES + t] = ZOBRIST[Chip.BLACK][SYMMETRY[t][sq]];
+				SYMMETRIC_ZOBRIST[Chip.WHITE][sq * SYMMETRIES + t] = ZOBRIST[Chip.WHITE][SYMMETRY[t][sq]];
+			}
+		}
+	}
+
+	/* NEIGHBORS[sq] is the mask of the (up to) eight squares touching sq.
+	 * PLAYABLE[color] is every square that color may ever occupy: no corners
+	 * and none of the opponent's goal squares. */
+	protected static final long[] NEIGHBORS = new long[DIMENSION * DIMENSION];
+	protected static final long[] PLAYABLE = new long[2];
+
+	/* Goal areas of each color: networks start in START_GOAL and end in
+	 * END_GOAL (either way round gives the same networks). */
+	protected static final long[] START_GOAL = new long[2];
+	protected static final long[] END_GOAL = new long[2];
+
+	/* The squares with x == 0 and with x == DIMENSION - 1. */
+	protected static final long FILE_A = 0x0101010101010101L;
+	protected static final long FILE_H = FILE_A << (DIMENSION - 1);
+
+	static {
+		for (int x = 0; x < DIMENSION; x++) {
+			for (int y = 0; y < DIMENSION; y++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					for (int dy = -1; dy <= 1; dy++) {
+						int nx = x + dx;
+						int ny = y + dy;
+						if ((dx != 0 || dy != 0) && nx >= 0 && nx < DIMENSION && ny >= 0 && ny < DIMENSION) {
+							NEIGHBORS[square(x, y)] |= 1L << square(nx, ny);
+						}
+					}
+				}
+				boolean corner = (x == 0 || x == DIMENSION-1) && (y == 0 || y == DIMENSION-1);
+				if (!corner && y != 0 && y != DIMENSION-1) { PLAYABLE[Chip.WHITE] |= 1L << square(x, y); }
+				if (!corner && x != 0 && x != DIMENSION-1) { PLAYABLE[Chip.BLACK] |= 1L << square(x, y); }
+				if (!corner && x == 0) { START_GOAL[Chip.WHITE] |= 1L << square(x, y); }
+				if (!corner && x == DIMENSION-1) { END_GOAL[Chip.WHITE] |= 1L << square(x, y); }
+				if (!corner && y == 0) { START_GOAL[Chip.BLACK] |= 1L << square(x, y); }
+				if (!corner && y == DIMENSION-1) { END_GOAL[Chip.BLACK] |= 1L << square(x, y); }
+			}
+		}
+	}
+
+	/* neighborCount[color][sq] is how many chips of that color touch sq.
+	 * addChip() and removeChip() keep it current. */
+	protected byte[][] neighborCount;
+
+	/* connections[color] is the number of connections of that color's chips,
+	 * counted from both ends (the sum of Chip.connectionMask() bit counts that
+	 * evalBoard() scores).  addChip() and removeChip() keep it current. */
+	protected int[] connections;
+
+	/* Evaluation feature weights (see networkFeatures()). */
+	protected static final int PATH_BONUS = 40;
+	protected static final int REACH_WEIGHT = 1;
+
+	/* Scratch space for networkFeatures(): each chip's connection mask. */
+	protected long[] connectionGraph;
+
+	/* keys[t] is the Zobrist key of this position after symmetry t (see
+	 * SYMMETRY), side to move included; keys[0] is the position's own key. */
+	protected long[] keys;
+	protected int toMove;
+
+	/* Search scratch space: one packed-move buffer per ply, and the best move
+	 * found at each ply.  Allocated on the first search. */
+	protected int[][] plyMoves;
+	protected int[] plyBest;
+
+	/* Move ordering: ordering scores parallel to plyMoves, two killer moves
+	 * per ply (quiet moves that caused a cutoff there), and a history table
+	 * indexed by the from/to bits of a packed move.  Add moves have "from"
+	 * square 0, a corner no step move can start from. */
+	protected int[][] plyScores;
+	protected int[][] killers;
+	protected int[] history;
+
+	/* One MovePicker per ply, handing out that ply's moves in plyMoves. */
+	protected MovePicker[] pickers;
+
+	/* The moves a split point at each ply hands to its SplitPoint, allocated
+	 * the first time that ply splits. */
+	protected int[][] splitMoves;
+
+	/* Scratch buffer for the threat moves quiesce() asks for. */
+	protected int[] threatBuffer;
+
+	/* Search path state: the plies null moves and late move reductions have
+	 * taken off the current path, and the ply after the latest null move
+	 * (where another null move is not allowed). */
+	protected int reduction;
+	protected int nullPly = -1;
+
+	/* The key of the position at each ply of the current search path. */
+	protected long[] plyKeys;
+
+	/* Work done on this board, for the clock: one unit per search node, and
+	 * one per network search, threat candidate or flood-fill evaluation,
+	 * since a leaf can cost far more than a node.  The clock is checked
+	 * again once work reaches nextClockCheck. */
+	protected long work;
+	protected long nextClockCheck;
+
+	/* Network search scratch space: the chips on the current path and, for
+	 * each path position, the candidates not yet tried there. */
+	protected int[] networkPath;
+	protected long[] networkPending;
+	protected NetworkCache networkCache;
 
 	/**
    	* GameBoard() returns a new GameBoard with no chips on it.
@@ -16,9 +192,162 @@ public class GameBoard {
    	* @return this method has no return value
    	**/
 	public GameBoard() {
-		grid = new Chip[DIMENSION][DIMENSION];
-		white_chips = new DList();
-		black_chips = new DList();
+		bits = new long[2];
+		neighborCount = new byte[2][DIMENSION * DIMENSION];
+		connections = new int[2];
+		connectionGraph = new long[DIMENSION * DIMENSION];
+		networkPath = new int[DIMENSION * DIMENSION];
+		networkPending = new long[DIMENSION * DIMENSION + 1];
+		networkCache = new NetworkCache();
+		plyKeys = new long[MAX_PLY];
+		keys = new long[SYMMETRIES];
+		toMove = Chip.WHITE;
+	}
+	/**
+   	* GameBoard() returns a copy of another GameBoard's position (chips, key
+   	* and side to move).  The copy has its own search buffers and network
+   	* cache, so it can be searched on another thread.
+   	* @param other is the board to copy
+   	* @return this method has no return value
+   	**/
+	public GameBoard(GameBoard other) {
+		this();
+		copyFrom(other);
+	}
+	/**
+   	* copyFrom() makes this board's position the same as another board's,
+   	* along with the reductions and keys on its search path.  Search
+   	* buffers, ordering tables and the network cache are kept.
+   	* @param other is the board to copy
+   	* @return no return value
+   	**/
+	protected void copyFrom(GameBoard other) {
+		bits[Chip.BLACK] = other.bits[Chip.BLACK];
+		bits[Chip.WHITE] = other.bits[Chip.WHITE];
+		System.arraycopy(other.neighborCount[Chip.BLACK], 0, neighborCount[Chip.BLACK], 0, DIMENSION * DIMENSION);
+		System.arraycopy(other.neighborCount[Chip.WHITE], 0, neighborCount[Chip.WHITE], 0, DIMENSION * DIMENSION);
+		connections[Chip.BLACK] = other.connections[Chip.BLACK];
+		connections[Chip.WHITE] = other.connections[Chip.WHITE];
+		System.arraycopy(other.keys, 0, keys, 0, SYMMETRIES);
+		toMove = other.toMove;
+		reduction = other.reduction;
+		nullPly = other.nullPly;
+		System.arraycopy(other.plyKeys, 0, plyKeys, 0, MAX_PLY);
+	}
+	/**
+   	* square() maps an (x,y) position on the board to its bit index.
+   	* Unusual Conditions: x and y are assumed to be on the board
+   	* @param x is the x position, y is the y position
+   	* @return returns the bit index of (x,y) in the occupancy masks
+   	**/
+	protected static int square(int x, int y) {
+		return y * DIMENSION + x;
+	}
+	/**
+   	* occupied() returns a mask of every square holding a chip of either color.
+   	* @param this method has no parameters
+   	* @return returns the union of both occupancy masks
+   	**/
+	protected long occupied() {
+		return bits[Chip.BLACK] | bits[Chip.WHITE];
+	}
+	/**
+   	* chipCount() returns how many chips of the given color are on the board.
+   	* @param color is the color of the player whose chips are counted
+   	* @return returns the number of chips of that color
+   	**/
+	public int chipCount(int color) {
+		return Long.bitCount(bits[color]);
+	}
+	/**
+   	* zobristKey() returns the Zobrist hash of the current position, covering
+   	* every chip on the board and the side to move.  It is kept up to date
+   	* incrementally by addChip(), removeChip(), performMove() and undoMove().
+   	* @param this method has no parameters
+   	* @return returns the 64-bit key of this position
+   	**/
+	public long zobristKey() {
+		return keys[0];
+	}
+	/**
+   	* pieceKey() returns the Zobrist key of the chips alone, leaving out the
+   	* side to move.
+   	* @param this method has no parameters
+   	* @return returns the 64-bit key of the chips on the board
+   	**/
+	protected long pieceKey() {
+		return (toMove == Chip.BLACK) ? keys[0] ^ ZOBRIST_BLACK_TO_MOVE : keys[0];
+	}
+	/**
+   	* symmetricKey() returns the Zobrist key of this position after one of
+   	* the board's symmetries, side to move included.
+   	* @param t is the symmetry (0 to SYMMETRIES - 1, see SYMMETRY)
+   	* @return returns the 64-bit key of the transformed position
+   	**/
+	protected long symmetricKey(int t) {
+		return keys[t];
+	}
+	/**
+   	* canonicalTransform() picks the symmetry that takes this position to its
+   	* canonical form: the one with the smallest key.  Positions that are
+   	* mirror images or rotations of each other share a canonical form, so
+   	* tables keyed by canonicalKey() hold one entry for all of them.  A move
+   	* stored under the canonical key is translated with PackedMove.transform().
+   	* @param this method has no parameters
+   	* @return returns the symmetry, 0 to SYMMETRIES - 1
+   	**/
+	protected int canonicalTransform() {
+		int best = 0;
+		for (int t = 1; t < SYMMETRIES; t++) {
+			if (keys[t] < keys[best]) { best = t; }
+		}
+		return best;
+	}
+	/**
+   	* canonicalKey() returns the key of this position's canonical form (see
+   	* canonicalTransform()), side to move included.
+   	* @param this method has no parameters
+   	* @return returns the 64-bit canonical key
+   	**/
+	public long canonicalKey() {
+		return keys[canonicalTransform()];
+	}
+	/**
+   	* canonicalPieceKey() returns the key of the chips alone in canonical
+   	* form, leaving out the side to move.  Whether a side has a network does
+   	* not change under a symmetry, so the network cache is keyed by this.
+   	* @param this method has no parameters
+   	* @return returns the 64-bit canonical key of the chips on the board
+   	**/
+	protected long canonicalPieceKey() {
+		long side = (toMove == Chip.BLACK) ? ZOBRIST_BLACK_TO_MOVE : 0;
+		long min = keys[0] ^ side;
+		for (int t = 1; t < SYMMETRIES; t++) {
+			min = Math.min(min, keys[t] ^ side);
+		}
+		return min;
+	}
+	/**
+   	* sideToMove() returns the color that moves next.  White moves first;
+   	* performMove() passes the turn to the other side and undoMove() gives it back.
+   	* @param this method has no parameters
+   	* @return returns Chip.WHITE or Chip.BLACK
+   	**/
+	public int sideToMove() {
+		return toMove;
+	}
+	/**
+   	* setSideToMove() sets the color that moves next, updating the key.
+   	* @param side is the color that moves next
+   	* @return no return value
+   	**/
+	protected void setSideToMove(int side) {
+		if (side != toMove) {
+			for (int t = 0; t < SYMMETRIES; t++) {
+				keys[t] ^= ZOBRIST_BLACK_TO_MOVE;
+			}
+			toMove = side;
+		}
 	}
 	/**
    	* cellContents() finds and returns the contents of the given (x,y) position on the GameBoard. 
@@ -29,22 +358,28 @@ public class GameBoard {
    	* if the given x and y are off the board.
    	**/
 	public Chip cellContents(int x, int y) {
-		if (x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION) { return grid[x][y]; }
-		else return null;
+		if (x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION) {
+			int sq = square(x, y);
+			if ((bits[Chip.BLACK] >>> sq & 1L) != 0) { return Chip.chipAt(Chip.BLACK, sq); }
+			if ((bits[Chip.WHITE] >>> sq & 1L) != 0) { return Chip.chipAt(Chip.WHITE, sq); }
+		}
+		return null;
 	}
 
 	public void addChip(int color, int x, int y) {
-		if (x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION && grid[x][y] == null) {
-			Chip toAdd = new Chip(color, x, y);
-			grid[x][y] = toAdd;
-			if (color == Chip.BLACK) {
-				black_chips.insertBack(toAdd);
-			}
-			else if (color == Chip.WHITE) {
-				white_chips.insertBack(toAdd);
+		if (x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION && (color == Chip.BLACK || color == Chip.WHITE)) {
+			long bit = 1L << square(x, y);
+			if ((occupied() & bit) == 0) {
+				int sq = square(x, y);
+				updateConnections(color, sq, 1);
+				bits[color] |= bit;
+				toggleKeys(color, sq);
+				byte[] counts = neighborCount[color];
+				for (long n = NEIGHBORS[sq]; n != 0; n &= n - 1) {
+					counts[Long.numberOfTrailingZeros(n)]++;
+				}
 			}
 		}
-		else { return; }
 	}
 	/**
    	* removeChip() remove a chip of the given color from position (x,y) on the GameBoard.
@@ -54,20 +389,58 @@ public class GameBoard {
    	* @return no return value
    	**/
 	public void removeChip(int color, int x, int y) throws InvalidNodeException {
-
-		DList usedChips = getChipsofColor(color);
-		DListNode node = (DListNode) usedChips.front();
-
-		while (node.isValidNode()) {
-			Chip nodeChip = (Chip) node.item();
-			if (nodeChip.x == x && nodeChip.y == y) {
-				node.remove();
-				break;
+		int sq = square(x, y);
+		if ((bits[color] >>> sq & 1L) != 0) {
+			bits[color] &= ~(1L << sq);
+			toggleKeys(color, sq);
+			byte[] counts = neighborCount[color];
+			for (long n = NEIGHBORS[sq]; n != 0; n &= n - 1) {
+				counts[Long.numberOfTrailingZeros(n)]--;
 			}
-			else {node = (DListNode) node.next(); }
+			updateConnections(color, sq, -1);
+		}
+	}
+	/**
+   	* toggleKeys() puts a chip into, or takes it out of, every symmetric key.
+   	* @param color is the chip's color, sq is its square
+   	* @return no return value
+   	**/
+	private void toggleKeys(int color, int sq) {
+		long[] zobrist = SYMMETRIC_ZOBRIST[color];
+		int i = sq * SYMMETRIES;
+		keys[0] ^= zobrist[i];
+		keys[1] ^= zobrist[i + 1];
+		keys[2] ^= zobrist[i + 2];
+		keys[3] ^= zobrist[i + 3];
+	}
+	/**
+   	* updateConnections() adjusts the connection counts for a chip put on
+   	* (sign 1) or taken off (sign -1) an empty square.  Only the nearest chip
+   	* in each direction matters: the chip connects to those of its own color,
+   	* and it cuts (or restores) the connection between the two nearest chips
+   	* on each of its lines.
+   	* Unusual Conditions: sq must be empty when this is called
+   	* @param color is the chip's color, sq its square, sign 1 or -1
+   	* @return no return value
+   	**/
+	private void updateConnections(int color, int sq, int sign) {
+		long black = bits[Chip.BLACK];
+		long occupied = black | bits[Chip.WHITE];
+		for (int dir = 0; dir < 4; dir++) {
+			long forward = Chip.RAYS[dir][sq] & occupied;
+			long backward = Chip.RAYS[dir ^ 4][sq] & occupied;
+			int a = -1;
+			int b = -1;
+			if (forward != 0) {
+				a = ((black & Long.lowestOneBit(forward)) != 0) ? Chip.BLACK : Chip.WHITE;
+				if (a == color) { connections[color] += 2 * sign; }
+			}
+			if (backward != 0) {
+				b = ((black & Long.highestOneBit(backward)) != 0) ? Chip.BLACK : Chip.WHITE;
+				if (b == color) { connections[color] += 2 * sign; }
+			}
+			if (a >= 0 && a == b) { connections[a] -= 2 * sign; }
 		}
-
-		grid[x][y] = null;
 	}
 	/**
    	* getChipsofColor() returns all the chips of one player
@@ -75,76 +448,51 @@ public class GameBoard {
    	* @return returns a DList of all the chips of the player with chips of the given color
    	**/
 	public DList getChipsofColor(int color) throws InvalidNodeException{
-		if (color == Chip.WHITE){
-			return white_chips;}
-		else if (color == Chip.BLACK){
-			return black_chips;}
-		else {
-			return null;}
+		if (color != Chip.WHITE && color != Chip.BLACK) {
+			return null;
+		}
+		DList chips = new DList();
+		for (long b = bits[color]; b != 0; b &= b - 1) {
+			chips.insertBack(Chip.chipAt(color, Long.numberOfTrailingZeros(b)));
+		}
+		return chips;
 	}
 	/**
 	* isValidMove() Checks if a given Move m is valid for a side to perform. 
    	* @param side is the current player
    	* m is the move that is being checked for validity
-   	* @return returns a DList of possible valid moves on the board
+   	* @return returns true if the move is legal for side
    	**/
 	public boolean isValidMove(int side, Move m) throws InvalidNodeException {
-		if (grid[m.x1][m.y1] != null || (m.x1 == 0 && m.y1 == 0) || 
-				(m.x1 == DIMENSION-1 && m.y1 == 0) || (m.x1 == 0 && m.y1 == DIMENSION-1) || 
-					(m.x1 == DIMENSION-1 && m.y1 == DIMENSION-1)) {
-
+		if (m.moveKind != Move.ADD && m.moveKind != Move.STEP) { return false; }
+		if (m.x1 < 0 || m.x1 >= DIMENSION || m.y1 < 0 || m.y1 >= DIMENSION) { return false; }
+		if (m.moveKind == Move.STEP && (m.x2 < 0 || m.x2 >= DIMENSION || m.y2 < 0 || m.y2 >= DIMENSION)) {
 			return false;
 		}
-
-		if (side == Chip.WHITE && (m.y1 == 0 || m.y1 == DIMENSION-1)) {return false;} 
-		if (side == Chip.BLACK && (m.x1 == 0 || m.x1 == DIMENSION-1)) {return false;}
-
-
-		Chip old_chip = null;
-		if (m.moveKind == Move.STEP) { 
-			old_chip = grid[m.x2][m.y2];
-			grid[m.x2][m.y2] = null;
-		}
-
-		DList friend = new DList();
-		DList foe = new DList();
-
-		Chip[] neighbors = (new Chip(side, m.x1, m.y1)).getNeighbors(this);
-
-
-		for (int i = 0; i < neighbors.length; i++) { 
-			if (neighbors[i] != null && neighbors[i].color == side) {friend.insertBack(neighbors[i]);}
-			else if (neighbors[i]  !=null && neighbors[i].color == (side+1)%2) {foe.insertBack(neighbors[i]);}
-		}
-
-		if (friend.length() == 0) {
-			if (m.moveKind == Move.STEP) {
-				grid[m.x2][m.y2] = old_chip;
-			}
-			return true;
-		}
-
-
-		else if (friend.length() == 1) {
-			Chip[] f_neighbors = ((Chip)friend.front().item()).getNeighbors(this);
-			for (int i = 0; i < f_neighbors.length; i++) {
-				if (f_neighbors[i] != null && f_neighbors[i].color == side) {friend.insertBack(f_neighbors[i]);}
-				else if (f_neighbors[i] !=null && f_neighbors[i].color == (side+1)%2) {foe.insertBack(f_neighbors[i]);}
-			}
-
-			if (friend.length() <= 1) {
-				if (m.moveKind == Move.STEP) {
-					grid[m.x2][m.y2] = old_chip;
-				}
-				return true;
-			}
-		}
-
-		if (m.moveKind == Move.STEP) {
-			grid[m.x2][m.y2] = old_chip;
-		}
-
-		return false;
+		return isValidMove(side, PackedMove.fromMove(m));
+	}
+	/**
+	* isValidMove() Checks if a given packed move m is valid for a side to perform. 
+   	* @param side is the current player
+   	* m is the packed move (see PackedMove) that is being checked for validity
+   	* @return returns true if the move is legal for side
+   	**/
+	protected boolean isValidMove(int side, int m) throws InvalidNodeException {
+		int to = PackedMove.to(m);
+		if ((PLAYABLE[side] & ~occupied() & 1L << to) == 0) { return false; }
+
+		// For a step move the chip being moved no longer counts as a neighbor.
+		long vacated = 0;
+		if (PackedMove.kind(m) == Move.STEP) { vacated = bits[side] & 1L << PackedMove.from(m); }
+
+		// No clusters of three: the new chip may touch at most one friend,
+		// and that friend may not touch any other.
+		int friends = neighborCount[side][to] - ((NEIGHBORS[to] & vacated) != 0 ? 1 : 0);
+		if (friends == 0) { return true; }
+		if (friends > 1) { return false; }
+
+		int friend = Long.numberOfTrailingZeros(NEIGHBORS[to] & bits[side] & ~vacated);
+		return neighborCount[side][friend] - ((NEIGHBORS[friend] & vacated) != 0 ? 1 : 0) == 0;
 	}
 	/**
    	* moveFinder() finds all possible moves on a given gameboard for * a given player ("side"). 
@@ -156,40 +504,88 @@ public class GameBoard {
    	**/
 	public DList moveFinder(int side, int type) throws InvalidNodeException { 
 		DList moves = new DList(); 
+		int[] buffer = new int[MAX_MOVES];
+		int count = moveFinder(side, type, buffer);
+		for (int i = 0; i < count; i++) {
+			moves.insertBack(PackedMove.toMove(buffer[i]));
+		}
+		return moves;
+	}
+	/**
+   	* moveFinder() finds all possible moves for a given player ("side") and
+   	* writes them as packed moves (see PackedMove) into a caller-provided
+   	* buffer, allocating nothing.  Moves come out in the same order as the
+   	* DList version.
+   	* Unusual Conditions: buffer must hold at least MAX_MOVES entries
+   	* @param side is the current player, type is Move.ADD or Move.STEP,
+   	* buffer receives the moves
+   	* @return returns the number of moves written to buffer
+   	**/
+	protected int moveFinder(int side, int type, int[] buffer) throws InvalidNodeException {
+		int count = 0;
+		long empty = ~occupied();
 		if (type == Move.ADD) {
 			for (int x = 0; x < DIMENSION; x++) {
 				for (int y = 0; y < DIMENSION; y++) {
-					if (grid[x][y] == null) {
-						Move toAdd = new Move(x, y);
-						if (isValidMove(side, toAdd)) {moves.insertBack(toAdd);}
+					if ((empty >>> square(x, y) & 1L) != 0) {
+						int toAdd = PackedMove.add(x, y);
+						if (isValidMove(side, toAdd)) {buffer[count++] = toAdd;}
 					}
 				}
 			}
 		}
 		else if (type == Move.STEP) {
-			DList playedChips =  new DList();
-			if (side == Chip.BLACK) {playedChips = this.black_chips;}
-			else if (side == Chip.WHITE) {playedChips = this.white_chips;}
-
-			DListNode head = (DListNode) playedChips.front(); 
-			for (int c = 0; c < playedChips.length(); c++) {
+			// One destination mask per chip, listed column by column like the
+			// add moves above.
+			for (long chips = bits[side]; chips != 0; chips &= chips - 1) {
+				int from = Long.numberOfTrailingZeros(chips);
+				long destinations = stepDestinations(side, from);
 				for (int x = 0; x < DIMENSION; x++) {
-					for (int y = 0; y < DIMENSION; y++) {
-						if (grid[x][y] == null) {
-							Move toAdd = new Move(x, y, ((Chip) head.item()).x, ((Chip) head.item()).y);
-							if (isValidMove(side, toAdd)) {moves.insertBack(toAdd);}
-						}
+					for (long c = destinations & FILE_A << x; c != 0; c &= c - 1) {
+						int to = Long.numberOfTrailingZeros(c);
+						buffer[count++] = PackedMove.step(x, to / DIMENSION, from % DIMENSION, from / DIMENSION);
 					}
 				}
-				head = (DListNode) head.next();
 			}
 		}
 
-		return moves;
+		return count;
+	}
+	/**
+   	* stepDestinations() returns, as a mask, every square the chip of side
+   	* on "from" may step to: the empty squares side may play on, less those
+   	* where the chip would touch two friends, or touch one friend that
+   	* already touches another.  The chip's own square counts as empty
+   	* neighbor-wise but is not a destination.
+   	* Unusual Conditions: from must hold a chip of side
+   	* @param side is the side moving, from is the square of the chip moved
+   	* @return returns the mask of legal destination squares
+   	**/
+	protected long stepDestinations(int side, int from) {
+		long own = bits[side] & ~(1L << from);
+		// Count each square's friendly neighbors, up to two, by shifting the
+		// chips one square in each direction (Chip.DX and Chip.DY).
+		long one = 0;
+		long two = 0;
+		for (int dir = 0; dir < 8; dir++) {
+			int shift = Chip.DY[dir] * DIMENSION + Chip.DX[dir];
+			long n = (shift > 0) ? own << shift : own >>> -shift;
+			if (Chip.DX[dir] == 1) { n &= ~FILE_A; }
+			else if (Chip.DX[dir] == -1) { n &= ~FILE_H; }
+			two |= one & n;
+			one |= n;
+		}
+		long paired = own & one;
+		long nearPaired = 0;
+		for (; paired != 0; paired &= paired - 1) {
+			nearPaired |= NEIGHBORS[Long.numberOfTrailingZeros(paired)];
+		}
+		return PLAYABLE[side] & ~occupied() & ~two & ~nearPaired;
 	}
 	/**
    	* hasValidNetwork() checks "this" GameBoard to see if a network 
-   	* exists for the given side
+   	* exists for the given side.  Results are remembered in networkCache,
+   	* so asking again about the same position is a table lookup.
    	* Unusual Conditions: Side is not either player or opponent, then expect no useful
    	* return
    	* @param side is the the player (chip color) for whom we are 
@@ -197,89 +593,258 @@ public class GameBoard {
    	* @return returns true or false depending on if a network exists
    	**/
 	public boolean hasValidNetwork(int side) throws InvalidNodeException {
-		DList goalChips = new DList();
-		DList goalEndChips = new DList();
-		if (side == Chip.WHITE) {
-			for (int y = 1; y < DIMENSION-1; y++) {
-				if (grid[0][y] != null) {goalChips.insertBack(grid[0][y]);}
-				if (grid[DIMENSION-1][y] != null) {goalEndChips.insertBack(grid[DIMENSION-1][y]);}
-			}
+		long key = canonicalPieceKey();
+		int cached = networkCache.probe(key, side);
+		if (cached != NetworkCache.UNKNOWN) {
+			return cached == 1;
 		}
-		else if (side == Chip.BLACK) {
-			for (int x = 1; x < DIMENSION-1; x++) {
-				if (grid[x][0] != null) {goalChips.insertBack(grid[x][0]);}
-				if (grid[x][DIMENSION-1] != null) {goalEndChips.insertBack(grid[x][DIMENSION-1]);}
-			}
+		boolean result = findNetwork(side);
+		networkCache.store(key, side, result);
+		return result;
+	}
+	/**
+   	* findNetwork() does the work of hasValidNetwork() without the cache.
+   	* Unusual Conditions: None
+   	* @param side is the player (chip color) for whom we are checking
+   	* @return returns true or false depending on if a network exists
+   	**/
+	protected boolean findNetwork(int side) {
+		long own = bits[side];
+		if ((own & START_GOAL[side]) == 0 || (own & END_GOAL[side]) == 0 || Long.bitCount(own) < 6) {
+			return false;
 		}
-
-		if (goalChips.length() == 0 || goalEndChips.length() == 0) {
+		work++;
+
+		// Cheap necessary condition: flood-fill the connection graph from the
+		// start goal, entering no other start goal chip and leaving no end goal
+		// chip.  A network needs an end goal chip and six chips in the fill.
+		long reached = own & START_GOAL[side];
+		long frontier = reached;
+		while (frontier != 0) {
+			int sq = Long.numberOfTrailingZeros(frontier);
+			frontier &= frontier - 1;
+			if ((END_GOAL[side] >>> sq & 1L) != 0) { continue; }
+			long next = Chip.connectionMask(this, side, sq, -1) & ~reached & ~START_GOAL[side];
+			reached |= next;
+			frontier |= next;
+		}
+		if ((reached & END_GOAL[side]) == 0 || Long.bitCount(reached) < 6) {
 			return false;
 		}
-		else return networkHelper(side, goalChips, new DList()); 
+		return networkHelper(side);
 	}
 	/**
-   	* networkHelper() helps isValidNetwork() by running through each chip and checking
-   	* for connections and returning whether or not there is a network.
+   	* networkHelper() helps hasValidNetwork() by running a depth-first search
+   	* over paths of connected chips, starting in the side's first goal.  The
+   	* path lives in networkPath, the untried candidates for each path position
+   	* in networkPending, and the chips on the path in a bit mask.  A path may
+   	* use only one chip per goal area, may not visit a chip twice, and may not
+   	* pass straight through a chip (Chip.connectionMask() takes care of that).
    	* Unusual Conditions: None
    	* @param side is the the player (chip color) for whom we are 
    	* checking to see if a network exists
-   	* chips are the starting points of networks that we want to check. These will usually be the 
-   	* chips at either goal.
-   	* checked are the connectios that have already been checked. Checked starts off as an empty DList
-   	* and grows as the method runs.
    	* @return returns true or false depending on if a network exists
    	**/
-	private boolean networkHelper(int side, DList chips, DList checked) throws InvalidNodeException {
-		DListNode head = (DListNode) chips.front();
-		boolean toReturn = false;
-		while (head.isValidNode()) {
-			if (!(checkUsed((Chip) head.item(), checked))) {head = (DListNode) head.next(); continue;}
-			checked.insertBack(head.item());
-			
-			if (side == Chip.WHITE && ((Chip)head.item()).x == DIMENSION-1 && checked.length() >= 6) {return true;}
-			else if (side == Chip.BLACK && ((Chip)head.item()).y == DIMENSION-1 && checked.length() >= 6) {return true;}
-
-			DList connections = new DList();
-			if (checked.length() == 1) {connections = ((Chip) head.item()).getConnections(this, null);}
-			else {connections = ((Chip) head.item()).getConnections(this, (Chip) checked.back().prev().item());}
-			if (connections.length() == 0) {
-				checked.back().remove();
-				head = (DListNode) head.next();
+	private boolean networkHelper(int side) {
+		int[] path = networkPath;
+		long[] pending = networkPending;
+		long visited = 0;
+		int top = 0;
+		pending[0] = bits[side] & START_GOAL[side];
+
+		while (true) {
+			if (pending[top] == 0) {
+				if (top == 0) { return false; }
+				top--;
+				visited &= ~(1L << path[top]);
 				continue;
 			}
-			toReturn = networkHelper(side, connections, checked);
-			if (toReturn) {break;}
-			checked.back().remove();
-			head = (DListNode) head.next();
-		}
-		return toReturn;
-	} 
+			int sq = Long.numberOfTrailingZeros(pending[top]);
+			pending[top] &= pending[top] - 1;
 
+			if ((END_GOAL[side] >>> sq & 1L) != 0) {
+				if (top + 1 >= 6) { return true; }
+				continue;
+			}
+			path[top] = sq;
+			visited |= 1L << sq;
+			int prevSq = (top == 0) ? -1 : path[top - 1];
+			top++;
+			pending[top] = Chip.connectionMask(this, side, sq, prevSq) & ~visited & ~START_GOAL[side];
+		}
+	}
 	/**
-   	* checkUsed() is used in networkHelper() to check if a Chip has already been
-   	* checked for a possible question or not. 
-   	* Unusual Conditions: None
-   	* @param toCheck is the Chip that is being checked 
-   	* checked is a boolean representing whether or not the chip has been checked or not
-   	* @return returns true or false depending on whether or not the chip has been checked
-   	**/
-	private boolean checkUsed(Chip toCheck, DList checked) throws InvalidNodeException {
-		DListNode head = (DListNode) checked.front();
-		while (head.isValidNode()) {
-			Chip toCompare = (Chip) head.item();
-			if (toCompare.color == Chip.BLACK) {
-				if (toCompare.y == 0 && toCheck.y == 0) { return false; }
-				else if (toCompare.y == DIMENSION-1 && toCheck.y == DIMENSION-1) { return false; }
+   	* threatMoves() generates the "network-in-one" threats of a side: the
+   	* moves that would complete a network for it (and not for the opponent).
+   	* Only squares that could join the two halves of a network are tried:
+   	* a chip that completes a network sits between chips reachable from the
+   	* first goal and chips reachable from the second (or is itself in a goal),
+   	* so it must be in sight of both, and adding it cannot create any other
+   	* connection.  Each candidate is then checked with hasValidNetwork().
+   	* Unusual Conditions: buffer must hold at least MAX_MOVES entries
+   	* @param side is the side whose threats are generated, buffer receives
+   	* them as packed moves
+   	* @return returns the number of threats written to buffer
+   	**/
+	protected int threatMoves(int side, int[] buffer) throws InvalidNodeException {
+		return threatMoves(side, buffer, MAX_MOVES);
+	}
+	/**
+   	* threatMoves() generates at most max threats; with max 1 it is a quick
+   	* "does side threaten a network?" test.
+   	* Unusual Conditions: buffer must hold at least max entries
+   	* @param side is the side whose threats are generated, buffer receives
+   	* them as packed moves, max is the most threats wanted
+   	* @return returns the number of threats written to buffer
+   	**/
+	protected int threatMoves(int side, int[] buffer, int max) throws InvalidNodeException {
+		int numChips = chipCount(side);
+		int count = 0;
+		if (numChips < 5) {
+			return 0;
+		}
+		if (numChips < 10) {
+			for (long c = threatSquares(side) & PLAYABLE[side] & ~occupied(); c != 0 && count < max; c &= c - 1) {
+				int sq = Long.numberOfTrailingZeros(c);
+				int move = PackedMove.add(sq % DIMENSION, sq / DIMENSION);
+				if (isValidMove(side, move) && networkWith(side, sq)) { buffer[count++] = move; }
 			}
-			else if (toCompare.color == Chip.WHITE) {
-				if (toCompare.x == 0 && toCheck.x == 0) { return false; } 
-				else if (toCompare.x == DIMENSION-1 && toCheck.x == DIMENSION-1) { return false; }
+			return count;
+		}
+		for (long chips = bits[side]; chips != 0 && count < max; chips &= chips - 1) {
+			// With the chip on "from" lifted, find the squares it could complete
+			// a network on.  If lifting it already gives a network, try them all.
+			// While it is lifted, stepping it to sq is adding a ninth chip on sq.
+			int from = Long.numberOfTrailingZeros(chips);
+			removeChip(side, from % DIMENSION, from / DIMENSION);
+			long targets = (joinsGoals(side) && findNetwork(side)) ? PLAYABLE[side] : threatSquares(side);
+			for (long c = targets & PLAYABLE[side] & ~occupied() & ~(1L << from); c != 0 && count < max; c &= c - 1) {
+				int sq = Long.numberOfTrailingZeros(c);
+				if (isValidMove(side, PackedMove.add(sq % DIMENSION, sq / DIMENSION)) && networkWith(side, sq)) {
+					buffer[count++] = PackedMove.step(sq % DIMENSION, sq / DIMENSION, from % DIMENSION, from / DIMENSION);
+				}
 			}
-			if (((Chip)head.item()).x == toCheck.x && ((Chip)head.item()).y == toCheck.y) return false;
-			else head = (DListNode) head.next();
+			addChip(side, from % DIMENSION, from / DIMENSION);
 		}
-
-		return true;
+		return count;
+	}
+	/**
+   	* completesNetwork() tells whether a move gives its side a network and
+   	* its opponent none.  The side to move and the board are left unchanged.
+   	* @param side is the side making the move, move is a packed move
+   	* @return returns true if the move wins
+   	**/
+	private boolean completesNetwork(int side, int move) throws InvalidNodeException {
+		int from = PackedMove.from(move);
+		boolean step = PackedMove.kind(move) == Move.STEP;
+		if (step) { removeChip(side, from % DIMENSION, from / DIMENSION); }
+		boolean win = networkWith(side, PackedMove.to(move));
+		if (step) { addChip(side, from % DIMENSION, from / DIMENSION); }
+		return win;
+	}
+	/**
+   	* networkWith() tells whether one more chip on sq gives side a network
+   	* and its opponent none.  joinsGoals() rules most squares out before
+   	* the full network search.
+   	* Unusual Conditions: sq must be empty
+   	* @param side is the side adding the chip, sq is its square
+   	* @return returns true if the chip wins
+   	**/
+	private boolean networkWith(int side, int sq) throws InvalidNodeException {
+		work++;
+		addChip(side, sq % DIMENSION, sq / DIMENSION);
+		boolean win = joinsGoals(side) && hasValidNetwork(side) && !hasValidNetwork((side + 1) % 2);
+		removeChip(side, sq % DIMENSION, sq / DIMENSION);
+		return win;
+	}
+	/**
+   	* joinsGoals() is a quick necessary condition for a network: some chain
+   	* of connections through inner chips joins side's two goals.  It is a
+   	* flood fill, much cheaper than the path search of findNetwork().
+   	* @param side is the side to check
+   	* @return returns false if side cannot have a network
+   	**/
+	private boolean joinsGoals(int side) {
+		long own = bits[side];
+		long inner = own & ~START_GOAL[side] & ~END_GOAL[side];
+		return (goalReach(side, own & START_GOAL[side], inner) & END_GOAL[side]) != 0;
+	}
+	/**
+   	* threatSquares() returns the squares on which one more chip could
+   	* complete a network for side: in sight of chips reachable from both
+   	* goals, or in one goal and in sight of chips reachable from the other.
+   	* @param side is the side to check
+   	* @return returns a mask of candidate squares (empty or not)
+   	**/
+	private long threatSquares(int side) {
+		long own = bits[side];
+		long inner = own & ~START_GOAL[side] & ~END_GOAL[side];
+		long seenFromStart = visibleFrom(goalReach(side, own & START_GOAL[side], inner));
+		long seenFromEnd = visibleFrom(goalReach(side, own & END_GOAL[side], inner));
+		return (seenFromStart & seenFromEnd & ~START_GOAL[side] & ~END_GOAL[side])
+				| (START_GOAL[side] & seenFromEnd) | (END_GOAL[side] & seenFromStart);
+	}
+	/**
+   	* goalReach() flood-fills the connection graph from some goal chips,
+   	* passing only through the chips in inner.
+   	* @param side is the side, seeds are the goal chips to start from, inner
+   	* the chips the fill may pass through
+   	* @return returns the mask of chips reached, seeds included
+   	**/
+	private long goalReach(int side, long seeds, long inner) {
+		long reached = seeds;
+		for (long frontier = seeds; frontier != 0; ) {
+			long next = 0;
+			for (long f = frontier; f != 0; f &= f - 1) {
+				next |= Chip.connectionMask(this, side, Long.numberOfTrailingZeros(f), -1);
+			}
+			next &= ~reached;
+			reached |= next;
+			frontier = next & inner;
+		}
+		return reached;
+	}
+	/**
+   	* visibleFrom() returns the empty squares in sight of some chips: every
+   	* square on their eight rays up to the first chip.
+   	* @param chips is the mask of chips looking
+   	* @return returns the mask of squares they see
+   	**/
+	protected long visibleFrom(long chips) {
+		long occupied = occupied();
+		long seen = 0;
+		for (; chips != 0; chips &= chips - 1) {
+			int sq = Long.numberOfTrailingZeros(chips);
+			for (int dir = 0; dir < 4; dir++) {
+				long ray = Chip.RAYS[dir][sq];
+				long blockers = ray & occupied;
+				seen |= (blockers == 0) ? ray : ray & (Long.lowestOneBit(blockers) - 1);
+				ray = Chip.RAYS[dir ^ 4][sq];
+				blockers = ray & occupied;
+				seen |= (blockers == 0) ? ray : ray & -(Long.highestOneBit(blockers) << 1);
+			}
+		}
+		return seen;
+	}
+	/**
+   	* connectionSegments() returns the empty squares lying between two
+   	* connected chips of a color: a chip put on one of them cuts a connection.
+   	* @param color is the color whose connections are looked at
+   	* @return returns the mask of squares
+   	**/
+	protected long connectionSegments(int color) {
+		long own = bits[color];
+		long occupied = occupied();
+		long segments = 0;
+		for (long chips = own; chips != 0; chips &= chips - 1) {
+			int sq = Long.numberOfTrailingZeros(chips);
+			for (int dir = 0; dir < 4; dir++) {
+				long ray = Chip.RAYS[dir][sq];
+				long nearest = Long.lowestOneBit(ray & occupied);
+				if ((nearest & own) != 0) { segments |= ray & (nearest - 1); }
+			}
+		}
+		return segments;
 	}
 	/**
    	* findBestMove() takes in a set of moves and finds the best one 
@@ -294,101 +859,500 @@ public class GameBoard {
    	**/
 	protected Best findBestMove(int side, double alpha, double beta, 
 				int depth, MachinePlayer player) throws InvalidNodeException {
+		allocateSearchBuffers();
 	    Best myBest = new Best();
-	    Best reply;
+	    myBest.score = search(side, alpha, beta, depth, player);
+	    myBest.move = PackedMove.toMove(plyBest[depth]);
+	    return myBest;
+	}
+	/**
+   	* allocateSearchBuffers() allocates the per-ply buffers and ordering
+   	* tables the first time this board is searched.
+   	* @param this method has no parameters
+   	* @return no return value
+   	**/
+	protected void allocateSearchBuffers() {
+		if (plyMoves == null) {
+			plyMoves = new int[MAX_PLY][MAX_MOVES];
+			plyScores = new int[MAX_PLY][MAX_MOVES];
+			plyBest = new int[MAX_PLY];
+			killers = new int[MAX_PLY][2];
+			history = new int[1 << 12];
+			threatBuffer = new int[MAX_MOVES];
+			splitMoves = new int[MAX_PLY][];
+			pickers = new MovePicker[MAX_PLY];
+			for (int i = 0; i < MAX_PLY; i++) {
+				pickers[i] = new MovePicker(this, plyMoves[i], plyScores[i]);
+			}
+		}
+	}
+	/**
+   	* copyOrdering() copies the killer moves and history scores of another
+   	* board, so a search started on this board orders moves as other would.
+   	* @param other is the board to copy from
+   	* @return no return value
+   	**/
+	protected void copyOrdering(GameBoard other) {
+		allocateSearchBuffers();
+		for (int i = 0; i < MAX_PLY; i++) {
+			killers[i][0] = other.killers[i][0];
+			killers[i][1] = other.killers[i][1];
+		}
+		System.arraycopy(other.history, 0, history, 0, history.length);
+	}
+	/**
+   	* newSearch() prepares the ordering tables for a new move: killers are
+   	* forgotten and history scores are halved so recent cutoffs count most.
+   	* @param this method has no parameters
+   	* @return no return value
+   	**/
+	protected void newSearch() {
+		allocateSearchBuffers();
+		for (int i = 0; i < MAX_PLY; i++) {
+			killers[i][0] = PackedMove.NONE;
+			killers[i][1] = PackedMove.NONE;
+		}
+		for (int i = 0; i < history.length; i++) {
+			history[i] >>= 1;
+		}
+	}
+	/**
+   	* search() is the alpha-beta search behind findBestMove().  It works on
+   	* packed moves in the per-ply buffers and allocates nothing, apart from
+   	* the tasks of a parallel split (see SplitPoint); the best move at each
+   	* ply is left in plyBest[depth].
+   	* Unusual Conditions: findBestMove() must have allocated the ply buffers
+   	* @param side is the player to move, alpha/beta are the search window,
+   	* depth is the distance from the root, player is the machine player searching
+   	* @return returns the score of the position from player's point of view
+   	**/
+	protected double search(int side, double alpha, double beta, 
+				int depth, MachinePlayer player) throws InvalidNodeException {
+	    double myScore;
+	    double reply;
+	    plyBest[depth] = PackedMove.NONE;
+	    plyKeys[depth] = zobristKey();
+
+	    if (clockTick(player)) {
+	    	return 0;
+	    }
 
 	    if (hasValidNetwork(side) || hasValidNetwork((side + 1) % 2)) {
-	    	myBest.score = evalBoard(side, player, depth);
-	    	return myBest;	
+	    	return evalBoard(side, player, depth);
+	    }
+
+	    else if (depth > 0 && isRepetition(depth, player)) {
+	    	return DRAW_SCORE;
+	    }
+
+	    else if (depth + reduction >= player.searchDepth) {
+	    	return player.quiescence ? quiesce(side, alpha, beta, depth, player) : evalBoard(side, player, depth);
 	    }
 
-	    else if (depth >= player.searchDepth) {
-	    	myBest.score = evalBoard(side, player, depth);
-	    	return myBest;
+	    TranspositionTable table = player.table;
+	    // The table is keyed by the canonical form; its moves are stored in the
+	    // canonical orientation and translated back here.
+	    int symmetry = canonicalTransform();
+	    long key = symmetricKey(symmetry);
+	    int remaining = player.searchDepth - depth - reduction;
+	    double alphaOrig = alpha;
+	    double betaOrig = beta;
+	    int hashMove = PackedMove.NONE;
+	    if (table != null) {
+	    	long entry = table.probe(key);
+	    	if (entry != 0) {
+	    		hashMove = PackedMove.transform(TranspositionTable.move(entry), symmetry);
+	    		double stored = TranspositionTable.score(entry);
+	    		int bound = TranspositionTable.bound(entry);
+	    		if (depth > 0 && TranspositionTable.depth(entry) >= remaining && Math.abs(stored) < NETWORK_THRESHOLD) {
+	    			if (bound == TranspositionTable.EXACT) {
+	    				plyBest[depth] = hashMove;
+	    				return stored;
+	    			}
+	    			else if (bound == TranspositionTable.LOWER) { alpha = Math.max(alpha, stored); }
+	    			else if (bound == TranspositionTable.UPPER) { beta = Math.min(beta, stored); }
+	    			if (alpha >= beta) {
+	    				plyBest[depth] = hashMove;
+	    				return stored;
+	    			}
+	    		}
+	    	}
 	    }
 
 	    if (side == player.color) {
-	    	myBest.score = alpha;
+	    	myScore = alpha;
 	    }
 	    else {
-	    	myBest.score = beta;
+	    	myScore = beta;
 	    }
 
-	    int numChips = getChipsofColor(side).length();
+	    int numChips = chipCount(side);
 
-	    if (numChips == 0) {
-			int[][] goalPos = new int[6][2];
-			if (side == Chip.BLACK) {
-				int i = 0;
-				for (int x = 1; x < DIMENSION - 1; x ++) {
-					goalPos[i] = new int[] {x, 0};
-					i ++;
-				}
-			}
-			else if (side == Chip.WHITE) {
-				int i = 0;
-				for (int y = 1; y < DIMENSION - 1; y ++) {
-					goalPos[i] = new int[] {0, y};
-					i ++;
-				}
-			}
+	    if (numChips <= 1 && player.randomOpening) {
+	    	// Open with a random square in the first goal, then one in the second.
+	    	int i = 1 + (int) (Math.random() * (DIMENSION - 2));
+	    	int far = (numChips == 0) ? 0 : DIMENSION - 1;
+	    	plyBest[depth] = (side == Chip.BLACK) ? PackedMove.add(i, far) : PackedMove.add(far, i);
+	    	return 0;
+	    }
 
-			myBest.score = 0;
-			int[] randPos = goalPos[(new Double(Math.random() * goalPos.length)).intValue()];
-			myBest.move = new Move(randPos[0], randPos[1]);
+	    // Null move pruning (see nullMoveSearch()).  Never twice in a row.
+	    boolean maximizing = (side == player.color);
+	    if (player.nullMove && depth > 0 && depth != nullPly && remaining > NULL_REDUCTION
+	    		&& numChips > 1 && chipCount((side + 1) % 2) > 1) {
+	    	double score = nullMoveSearch(side, alpha, beta, depth, player);
+	    	if (player.stopped()) {
+	    		return 0;
+	    	}
+	    	if (Math.abs(score) < NETWORK_THRESHOLD && (maximizing ? score >= beta : score <= alpha)) {
+	    		player.pruned.incrementAndGet(MachinePlayer.NULL_MOVE);
+	    		return score;
+	    	}
+	    }
 
-			return myBest;
-		}
-		else if (numChips == 1) {
-			int[][] goalPos = new int[6][2];
-			if (side == Chip.BLACK) {
-				int i = 0;
-				for (int x = 1; x < DIMENSION - 1; x ++) {
-					goalPos[i] = new int[] {x, DIMENSION-1};
-					i ++; 
+	    // Futility pruning: one ply above the horizon, if the static score is
+	    // so far outside the window that a quiet move will not bring it back,
+	    // only the first move and moves that complete a network are searched.
+	    boolean futile = false;
+	    if (player.futilityPruning && depth > 0 && remaining == 1) {
+	    	double staticScore = evalBoard(side, player, depth);
+	    	futile = maximizing ? staticScore + FUTILITY_MARGIN <= alpha : staticScore - FUTILITY_MARGIN >= beta;
+	    }
+
+		// Moves come from the ply's MovePicker in stages, so a node that cuts
+		// off early never generates most of its moves.  One ply above the
+		// horizon, network moves are only worth looking for first when the
+		// children are quiescence searches; evalBoard() finds them cheaply.
+		MovePicker picker = pickers[depth];
+		int firstMove = (depth == 0 && player.rootMove != PackedMove.NONE) ? player.rootMove : hashMove;
+		picker.init(side, depth, firstMove, hashMove, remaining > 1 || player.quiescence);
+
+		for (int i = 0; ; i++) {
+			if (i == 1 && player.canSplit(remaining)) {
+				// Young Brothers Wait: the eldest brother has been searched, so the
+				// remaining moves are searched in parallel (see SplitPoint).
+				if (splitMoves[depth] == null) {
+					splitMoves[depth] = new int[MAX_MOVES];
+				}
+				int[] rest = splitMoves[depth];
+				int count = picker.drain(rest);
+				SplitPoint split = new SplitPoint(player, side, depth, alpha, beta, myScore, plyBest[depth]);
+				split.search(this, rest, 0, count);
+				if (player.stopped()) {
+					return 0;
+				}
+				myScore = split.bestScore;
+				plyBest[depth] = split.bestMove;
+				if (split.cut) {
+					recordCutoff(split.bestMove, depth, remaining);
 				}
+				break;
+			}
+			int move = picker.next();
+			if (move == PackedMove.NONE) {
+				break;
 			}
-			else if (side == Chip.WHITE) {
-				int i = 0;
-				for (int y = 1; y < DIMENSION - 1; y ++) {
-					goalPos[i] = new int[] {DIMENSION-1, y};
-					i++;
+			performMove(side, move);
+			if (futile && i > 0 && !hasValidNetwork(side)) {
+				undoMove(side, move);
+				player.pruned.incrementAndGet(MachinePlayer.FUTILITY);
+				continue;
+			}
+			// Late move reductions: a move ordered after the first LMR_MOVES (and
+			// after the hash and killer moves) is searched one ply shallower, and
+			// again at full depth only if it turns out better than expected.
+			if (player.lateMoveReductions && depth > 0 && i >= LMR_MOVES && remaining >= LMR_DEPTH
+					&& picker.isQuiet() && !hasValidNetwork(side)) {
+				reduction++;
+				reply = searchReply(side, alpha, beta, depth, player, false);
+				reduction--;
+				if ((maximizing ? reply > alpha : reply < beta) && !player.stopped()) {
+					reply = searchReply(side, alpha, beta, depth, player, false);
+				}
+				else {
+					player.pruned.incrementAndGet(MachinePlayer.LATE_MOVE_REDUCTIONS);
 				}
 			}
-			myBest.score = 0;
-			int[] randPos = goalPos[(new Double(Math.random() * goalPos.length)).intValue()];
-			myBest.move = new Move(randPos[0], randPos[1]);
-
-			return myBest;
-		}
-
-		DList legalMoves = (numChips == 10) ? moveFinder(side, Move.STEP) : moveFinder(side, Move.ADD);
-		DListNode node = (DListNode) legalMoves.front();
-
-		
-
-		while (node.isValidNode()) {
-			performMove(side, (Move) node.item());
-			reply = findBestMove((side + 1) % 2, alpha, beta, depth + 1, player);
-			undoMove(side, (Move) node.item());
+			else {
+				reply = searchReply(side, alpha, beta, depth, player, i == 0);
+			}
+			undoMove(side, move);
+			if (player.stopped()) {
+				return 0;
+			}
 
-			if (side == player.color && reply.score > myBest.score) {
-				myBest.move = (Move) node.item();
-				myBest.score = reply.score;
-				alpha = reply.score;
+			if (side == player.color && reply > myScore) {
+				plyBest[depth] = move;
+				myScore = reply;
+				alpha = reply;
+			}
+			else if (side == (player.color + 1) % 2 && reply < myScore) {
+				plyBest[depth] = move;
+				myScore = reply;
+				beta = reply;
 			}
-			else if (side == (player.color + 1) % 2 && reply.score < myBest.score) {
-				myBest.move = (Move) node.item();
-				myBest.score = reply.score;
-				beta = reply.score;
+			if (alpha >= beta) {
+				recordCutoff(move, depth, remaining);
+				break;
 			}
-			if (alpha >= beta) { return myBest; }
+		}
 
-			node = (DListNode) node.next();
+		if (table != null) {
+			int bound = TranspositionTable.EXACT;
+			if (myScore <= alphaOrig) { bound = TranspositionTable.UPPER; }
+			else if (myScore >= betaOrig) { bound = TranspositionTable.LOWER; }
+			table.store(key, myScore, bound, remaining, PackedMove.transform(plyBest[depth], symmetry));
 		}
-		return myBest;
+		return myScore;
   	}	
   	/**
+   	* clockTick() counts a search node and, once CLOCK_INTERVAL units of work
+   	* have been done on this board since the last check, checks player's clock.
+   	* @param player is the machine player searching
+   	* @return returns true if the search should stop
+   	**/
+  	protected boolean clockTick(MachinePlayer player) {
+  		player.nodes++;
+  		if (++work >= nextClockCheck) {
+  			nextClockCheck = work + CLOCK_INTERVAL;
+  			player.checkClock();
+  		}
+  		return player.stopped();
+  	}
+  	/**
+   	* searchReply() searches the position after "side" has just moved, i.e.
+   	* one child of a node at "depth".  The first child gets the full window;
+   	* in PVS mode every later child is first tried with a null window to show
+   	* it is no better than the best so far, and searched fully only if not.
+   	* Unusual Conditions: the move must already have been performed
+   	* @param side is the side that moved, alpha/beta are the parent's window,
+   	* depth is the parent's distance from the root, player is the searching
+   	* player, first is true for the parent's first move
+   	* @return returns the child's score from player's point of view
+   	**/
+  	protected double searchReply(int side, double alpha, double beta, int depth,
+  				MachinePlayer player, boolean first) throws InvalidNodeException {
+  		boolean maximizing = (side == player.color);
+  		if (first || player.searchMode != MachinePlayer.PVS || Double.isInfinite(maximizing ? alpha : beta)) {
+  			return search((side + 1) % 2, alpha, beta, depth + 1, player);
+  		}
+  		double reply;
+  		if (maximizing) {
+  			reply = search((side + 1) % 2, alpha, alpha + 1, depth + 1, player);
+  			if (reply > alpha && reply < beta && !player.stopped()) {
+  				reply = search((side + 1) % 2, alpha, beta, depth + 1, player);
+  			}
+  		}
+  		else {
+  			reply = search((side + 1) % 2, beta - 1, beta, depth + 1, player);
+  			if (reply < beta && reply > alpha && !player.stopped()) {
+  				reply = search((side + 1) % 2, alpha, beta, depth + 1, player);
+  			}
+  		}
+  		return reply;
+  	}
+  	/**
+   	* isRepetition() tells whether the position at "depth" occurred before,
+   	* earlier on the search path or in the game (MachinePlayer.gameKeys).
+   	* Positions can only repeat once both sides have all ten chips.  Below a
+   	* null move only the path since the null move is checked, since the
+   	* positions there did not really occur.
+   	* Unusual Conditions: plyKeys[0..depth] must hold the search path
+   	* @param depth is the ply of the position, player is the machine player
+   	* searching
+   	* @return returns true if the position is a repetition
+   	**/
+  	protected boolean isRepetition(int depth, MachinePlayer player) {
+  		if (chipCount(Chip.BLACK) < 10 || chipCount(Chip.WHITE) < 10) {
+  			return false;
+  		}
+  		long key = plyKeys[depth];
+  		// Only every other ply has the same side to move.
+  		for (int d = depth - 2; d >= Math.max(nullPly, 0); d -= 2) {
+  			if (plyKeys[d] == key) { return true; }
+  		}
+  		if (nullPly >= 0) {
+  			return false;
+  		}
+  		long[] gameKeys = player.gameKeys;
+  		for (int i = player.gamePlies - 1; i >= 0; i--) {
+  			if (gameKeys[i] == key) { return true; }
+  		}
+  		return false;
+  	}
+  	/**
+   	* nullMoveSearch() lets "side" pass: the other side moves twice in a row,
+   	* and the position is searched NULL_REDUCTION plies shallower than a real
+   	* move would be, with a null window at beta (alpha for the minimizing
+   	* side).  If even passing holds the bound, search() cuts off.
+   	* Unusual Conditions: if the bound tested is infinite nothing is searched,
+   	* and the score returned never cuts off
+   	* @param side is the player to move, alpha/beta are the search window,
+   	* depth is the distance from the root, player is the machine player searching
+   	* @return returns the score after the pass from player's point of view
+   	**/
+  	protected double nullMoveSearch(int side, double alpha, double beta,
+  				int depth, MachinePlayer player) throws InvalidNodeException {
+  		boolean maximizing = (side == player.color);
+  		if (Double.isInfinite(maximizing ? beta : alpha)) {
+  			return maximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+  		}
+  		int other = (side + 1) % 2;
+  		int savedNullPly = nullPly;
+  		nullPly = depth + 1;
+  		reduction += NULL_REDUCTION;
+  		setSideToMove(other);
+  		double score = maximizing ? search(other, beta - 1, beta, depth + 1, player)
+  				: search(other, alpha, alpha + 1, depth + 1, player);
+  		setSideToMove(side);
+  		reduction -= NULL_REDUCTION;
+  		nullPly = savedNullPly;
+  		return score;
+  	}
+  	/**
+   	* quiesce() replaces the static evaluation at the horizon.  It looks one
+   	* step further for networks only: if the side to move can complete a
+   	* network, it does; if the opponent threatens to, the side to move must
+   	* block, and every block (a move after which the opponent has no
+   	* network-in-one) is searched, up to QUIESCENCE_PLIES past the horizon.
+   	* Otherwise the position is quiet and evalBoard() scores it.
+   	* Unusual Conditions: findBestMove() must have allocated the ply buffers
+   	* @param side is the player to move, alpha/beta are the search window,
+   	* depth is the distance from the root, player is the machine player searching
+   	* @return returns the score of the position from player's point of view
+   	**/
+  	protected double quiesce(int side, double alpha, double beta,
+  				int depth, MachinePlayer player) throws InvalidNodeException {
+  		// Nodes past the horizon count toward the clock like any other; the
+  		// horizon node itself was counted by search().
+  		if (depth + reduction > player.searchDepth && clockTick(player)) {
+  			return 0;
+  		}
+  		int other = (side + 1) % 2;
+  		if (threatMoves(side, threatBuffer, 1) > 0) {
+  			int win = threatBuffer[0];
+  			performMove(side, win);
+  			double score = evalBoard(other, player, depth + 1);
+  			undoMove(side, win);
+  			return score;
+  		}
+  		if (threatMoves(other, threatBuffer, 1) == 0 || depth + reduction >= player.searchDepth + QUIESCENCE_PLIES
+  				|| depth + 1 >= MAX_PLY) {
+  			return evalBoard(side, player, depth);
+  		}
+
+  		// A block must stop this threat in particular, so it occupies the
+  		// threat square, a square between it and a chip it would connect to,
+  		// or a square between two connected chips.
+  		int loss = threatBuffer[0];
+  		long target = 1L << PackedMove.to(loss);
+  		long linked = Chip.connectionMask(this, other, PackedMove.to(loss), -1);
+  		long blockSquares = target | (visibleFrom(target) & visibleFrom(linked)) | connectionSegments(other);
+  		int[] moves = plyMoves[depth];
+  		int count = moveFinder(side, (chipCount(side) == 10) ? Move.STEP : Move.ADD, moves);
+  		boolean maximizing = (side == player.color);
+  		double best = maximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+  		boolean blocked = false;
+  		for (int i = 0; i < count && alpha < beta; i++) {
+  			int move = moves[i];
+  			if ((blockSquares >>> PackedMove.to(move) & 1L) == 0) {
+  				continue;
+  			}
+  			performMove(side, move); 
+  			// Most candidates leave the threat found above in place, which
+  			// is cheaper to check than generating the opponent's threats.
+  			if (hasValidNetwork(other) || (isValidMove(other, loss) && completesNetwork(other, loss))
+  					|| threatMoves(other, threatBuffer, 1) > 0) {
+  				undoMove(side, move);
+  				continue;
+  			}
+  			blocked = true;
+  			double reply = quiesce(other, alpha, beta, depth + 1, player);
+  			undoMove(side, move);
+  			if (player.stopped()) {
+  				return 0;
+  			}
+  			if (maximizing && reply > best) {
+  				best = reply;
+  				alpha = Math.max(alpha, reply);
+  			}
+  			else if (!maximizing && reply < best) {
+  				best = reply;
+  				beta = Math.min(beta, reply);
+  			}
+  		}
+  		if (!blocked) {
+  			// Nothing stops the threat: the opponent completes a network.
+  			performMove(other, loss);
+  			best = evalBoard(side, player, depth + 1);
+  			undoMove(other, loss);
+  		}
+  		return best;
+  	}
+  	/**
+   	* scoreMoves() is the ordering stage between moveFinder() and the search
+   	* loop.  It gives every move an ordering score: the previous iteration's
+   	* best move first, then the transposition table move, then this ply's
+   	* killer moves, then the rest by history score.
+   	* Unusual Conditions: None
+   	* @param moves holds count packed moves, scores receives their ordering
+   	* scores, depth is the ply, first and hashMove are moves to try before
+   	* all others (PackedMove.NONE if none)
+   	* @return no return value
+   	**/
+  	protected void scoreMoves(int[] moves, int[] scores, int count, int depth, int first, int hashMove) {
+  		int killer0 = killers[depth][0];
+  		int killer1 = killers[depth][1];
+  		for (int i = 0; i < count; i++) {
+  			int m = moves[i];
+  			if (m == first) { scores[i] = Integer.MAX_VALUE; }
+  			else if (m == hashMove) { scores[i] = Integer.MAX_VALUE - 1; }
+  			else if (m == killer0) { scores[i] = Integer.MAX_VALUE - 2; }
+  			else if (m == killer1) { scores[i] = Integer.MAX_VALUE - 3; }
+  			else { scores[i] = history[m & 0xFFF]; }
+  		}
+  	}
+  	/**
+   	* nextMove() picks the highest scored move among moves[i..count-1] and
+   	* swaps it into position i.  Picking one at a time means no sorting work
+   	* is wasted on moves a cutoff never reaches.  Ties keep generation order.
+   	* Unusual Conditions: None
+   	* @param moves and scores are the move buffer and its ordering scores,
+   	* i is the position to fill, count is the number of moves
+   	* @return returns the move now at position i
+   	**/
+  	protected static int nextMove(int[] moves, int[] scores, int i, int count) {
+  		int best = i;
+  		for (int j = i + 1; j < count; j++) {
+  			if (scores[j] > scores[best]) { best = j; }
+  		}
+  		if (best != i) {
+  			int m = moves[best];
+  			int sc = scores[best];
+  			System.arraycopy(moves, i, moves, i + 1, best - i);
+  			System.arraycopy(scores, i, scores, i + 1, best - i);
+  			moves[i] = m;
+  			scores[i] = sc;
+  		}
+  		return moves[i];
+  	}
+  	/**
+   	* recordCutoff() updates the killer moves and history table after a move
+   	* caused a beta cutoff.
+   	* Unusual Conditions: None
+   	* @param move is the move that cut off, depth is the ply, remaining is the
+   	* search depth left below this ply
+   	* @return no return value
+   	**/
+  	protected void recordCutoff(int move, int depth, int remaining) {
+  		if (killers[depth][0] != move) {
+  			killers[depth][1] = killers[depth][0];
+  			killers[depth][0] = move;
+  		}
+  		int h = history[move & 0xFFF] + remaining * remaining;
+  		history[move & 0xFFF] = Math.min(h, Integer.MAX_VALUE - 4);
+  	}
+  	/**
    	* performMove() takes in a move and performs it for the specified side
    	* Unusual Conditions: None
    	* @param side is the side who should perform the move
@@ -403,6 +1367,23 @@ public class GameBoard {
   			removeChip(side, m.x2, m.y2);
   			addChip(side, m.x1, m.y1);
   		}
+  		setSideToMove((side + 1) % 2);
+  	}
+  	/**
+   	* performMove() performs a packed move (see PackedMove) for the specified side
+   	* Unusual Conditions: None
+   	* @param side is the side who should perform the move
+   	* m is the packed move which will be performed
+   	* @return no return value
+   	**/
+  	protected void performMove(int side, int m) throws InvalidNodeException {
+  		int to = PackedMove.to(m);
+  		if (PackedMove.kind(m) == Move.STEP) {
+  			int from = PackedMove.from(m);
+  			removeChip(side, from % DIMENSION, from / DIMENSION);
+  		}
+  		addChip(side, to % DIMENSION, to / DIMENSION);
+  		setSideToMove((side + 1) % 2);
   	}
   	/**
    	* undoMove() this is the opposite of performMove. It takes in a move
@@ -420,6 +1401,23 @@ public class GameBoard {
   			removeChip(side, m.x1, m.y1);
   			addChip(side, m.x2, m.y2);
   		}
+  		setSideToMove(side);
+  	}
+  	/**
+   	* undoMove() undoes a packed move (see PackedMove) performed by performMove()
+   	* Unusual Conditions: None
+   	* @param side is the side who performed the move
+   	* m is the packed move which will be undone
+   	* @return no return value
+   	**/
+  	protected void undoMove(int side, int m) throws InvalidNodeException {
+  		int to = PackedMove.to(m);
+  		removeChip(side, to % DIMENSION, to / DIMENSION);
+  		if (PackedMove.kind(m) == Move.STEP) {
+  			int from = PackedMove.from(m);
+  			addChip(side, from % DIMENSION, from / DIMENSION);
+  		}
+  		setSideToMove(side);
   	}
   	/**
    	* evalMove() takes a move and assigns a quantitative value to it
@@ -432,9 +1430,6 @@ public class GameBoard {
    	* @return a double value for how "good" the move is 
    	**/ 
   	protected double evalBoard(int side, MachinePlayer player, int depth) throws InvalidNodeException {
-  		DList sideChips = getChipsofColor(side);
-  		DList opponentChips = getChipsofColor((side + 1) % 2);
-
   		int sideScore = 0;
   		int networkScore = 1;
   		int opponentScore = 0;
@@ -448,20 +1443,291 @@ public class GameBoard {
   			opponentNetworkScore = Integer.MAX_VALUE / depth;
   		}
 
-  		DListNode sideNode = (DListNode) sideChips.front();
-  		while (sideNode.isValidNode()) {
-  			sideScore += ((Chip) sideNode.item()).getConnections(this, null).length();
-  			sideNode = (DListNode) sideNode.next();
-  		}
-
-  		DListNode opponentNode = (DListNode) opponentChips.front();
-  		while (opponentNode.isValidNode()) {
-  			opponentScore += ((Chip) opponentNode.item()).getConnections(this, null).length();
-  			opponentNode = (DListNode) opponentNode.next();
+  		// Connection counts are kept up to date by addChip() and removeChip().
+  		sideScore = connections[side];
+  		opponentScore = connections[(side + 1) % 2];
+  		if (player.evalFeatures) {
+  			sideScore += networkFeatures(side);
+  			opponentScore += networkFeatures((side + 1) % 2);
   		}
 	  	double totalScore = (networkScore - opponentNetworkScore * 1.0) + (sideScore - opponentScore);
   		return (side == player.color) ? totalScore : -1 * totalScore;
   	}
+  	/**
+   	* networkFeatures() scores how close a color is to a network by flood-
+   	* filling its connection graph on bitmasks, one breadth-first layer of
+   	* chips per step.  Since a network may not pass through a goal chip,
+   	* only chips outside the goals are expanded.  If a chip path joins the
+   	* two goals, the score is PATH_BONUS less the length of the shortest one
+   	* (at least 6, the shortest network); otherwise it is REACH_WEIGHT per
+   	* chip linked to a goal chip.
+   	* Unusual Conditions: None
+   	* @param color is the color scored
+   	* @return returns the feature score (0 if color has no goal chip)
+   	**/
+  	protected int networkFeatures(int color) {
+  		long chips = bits[color];
+  		long start = chips & START_GOAL[color];
+  		long end = chips & END_GOAL[color];
+  		if (start == 0 && end == 0) {
+  			return 0;
+  		}
+  		work++;
+  		for (long c = chips; c != 0; c &= c - 1) {
+  			int sq = Long.numberOfTrailingZeros(c);
+  			connectionGraph[sq] = Chip.connectionMask(this, color, sq, -1);
+  		}
+  		long inner = chips & ~START_GOAL[color] & ~END_GOAL[color];
+  		if (start != 0 && end != 0) {
+  			long seen = start;
+  			long frontier = start;
+  			for (int length = 2; frontier != 0; length++) {
+  				long next = 0;
+  				for (long f = frontier; f != 0; f &= f - 1) {
+  					next |= connectionGraph[Long.numberOfTrailingZeros(f)];
+  				}
+  				next &= ~seen;
+  				if ((next & end) != 0) {
+  					return PATH_BONUS - Math.max(length, 6);
+  				}
+  				seen |= next;
+  				frontier = next & inner;
+  			}
+  		}
+  		int linked = 0;
+  		long seen = start | end;
+  		for (long frontier = seen; frontier != 0; ) {
+  			long next = 0;
+  			for (long f = frontier; f != 0; f &= f - 1) {
+  				next |= connectionGraph[Long.numberOfTrailingZeros(f)];
+  			}
+  			frontier = next & inner & ~seen;
+  			seen |= frontier;
+  			linked += Long.bitCount(frontier);
+  		}
+  		return REACH_WEIGHT * linked;
+  	}
+  	/* A self-test run by main() on every position forEachRandomPosition()
+  	 * reaches; it returns how many things it found wrong there. */
+  	protected interface PositionCheck {
+  		int failures(GameBoard board) throws InvalidNodeException;
+  	}
+  	/**
+   	* main() runs the board's self-tests.  Each checks, on every position of
+   	* the same seeded random games, something the board keeps incrementally
+   	* or generates on bitmasks against a plain recount or brute-force version.
+   	* Unusual Conditions: None
+   	* @param args may give the number of games (300 by default)
+   	* @return no return value
+   	**/
+  	public static void main(String[] args) throws InvalidNodeException {
+  		int games = (args.length > 0) ? Integer.parseInt(args[0]) : 300;
+  		System.out.println("Should be 0: " + forEachRandomPosition(games, GameBoard::checkConnections)
+  				+ " connection count mismatches in " + games + " games");
+  		System.out.println("Should be 0: " + forEachRandomPosition(games, GameBoard::checkStepMoves)
+  				+ " step move mismatches in " + games + " games");
+  		System.out.println("Should be 0: " + forEachRandomPosition(games, GameBoard::checkThreatMoves)
+  				+ " threat move mismatches in " + games + " games");
+  		System.out.println("Should be 0: " + forEachRandomPosition(games, GameBoard::checkSymmetricKeys)
+  				+ " symmetry failures in " + games + " games");
+  	}
+  	/**
+   	* forEachRandomPosition() plays seeded random games of up to 60 plies,
+   	* each ending early when a side has no move or either side has a
+   	* network, and runs a check after every move.
+   	* @param games is the number of games, check is the self-test to run
+   	* @return returns the failures the check found, summed over all positions
+   	**/
+  	protected static int forEachRandomPosition(int games, PositionCheck check) throws InvalidNodeException {
+  		Random random = new Random(games);
+  		int[] buffer = new int[MAX_MOVES];
+  		int failures = 0;
+  		for (int g = 0; g < games; g++) {
+  			GameBoard board = new GameBoard();
+  			for (int ply = 0; ply < 60; ply++) {
+  				int side = (ply + 1) % 2;
+  				int count = board.moveFinder(side, (board.chipCount(side) == 10) ? Move.STEP : Move.ADD, buffer);
+  				if (count == 0) {
+  					break;
+  				}
+  				board.performMove(side, buffer[random.nextInt(count)]);
+  				if (board.hasValidNetwork(Chip.BLACK) || board.hasValidNetwork(Chip.WHITE)) {
+  					break;
+  				}
+  				failures += check.failures(board);
+  			}
+  		}
+  		return failures;
+  	}
+  	/**
+   	* checkConnections() checks the connection counts addChip() and
+   	* removeChip() keep against a recount of every chip's connections.
+   	* @param board is the position checked
+   	* @return returns the number of colors whose count is wrong
+   	**/
+  	protected static int checkConnections(GameBoard board) {
+  		int mismatches = 0;
+  		for (int color = Chip.BLACK; color <= Chip.WHITE; color++) {
+  			int recount = 0;
+  			for (long c = board.bits[color]; c != 0; c &= c - 1) {
+  				recount += Long.bitCount(Chip.connectionMask(board, color, Long.numberOfTrailingZeros(c), -1));
+  			}
+  			if (board.connections[color] != recount) { mismatches++; }
+  		}
+  		return mismatches;
+  	}
+  	/**
+   	* checkStepMoves() checks the STEP moves moveFinder() builds from
+   	* stepDestinations() against the rules applied square by square: every
+   	* chip, lifted, tried on every square of the board.
+   	* @param board is the position checked
+   	* @return returns the number of sides whose moves disagree
+   	**/
+  	protected static int checkStepMoves(GameBoard board) throws InvalidNodeException {
+  		int[] moves = new int[MAX_MOVES];
+  		int mismatches = 0;
+  		for (int side = Chip.BLACK; side <= Chip.WHITE; side++) {
+  			if (board.chipCount(side) < 10) {
+  				continue;
+  			}
+  			int count = board.moveFinder(side, Move.STEP, moves);
+  			int expected = 0;
+  			for (long chips = board.bits[side]; chips != 0; chips &= chips - 1) {
+  				int from = Long.numberOfTrailingZeros(chips);
+  				for (int x = 0; x < DIMENSION; x++) {
+  					for (int y = 0; y < DIMENSION; y++) {
+  						if (legalStep(board, side, from % DIMENSION, from / DIMENSION, x, y)) {
+  							expected++;
+  							if (!contains(moves, count, PackedMove.step(x, y, from % DIMENSION, from / DIMENSION))) {
+  								count = -1;
+  							}
+  						}
+  					}
+  				}
+  			}
+  			if (count != expected) { mismatches++; }
+  		}
+  		return mismatches;
+  	}
+  	/**
+   	* legalStep() applies the rules to a step move one square at a time,
+   	* through cellContents(): the square must be empty, not a corner and not
+   	* in the opponent's goals, and with the chip lifted from (fromX, fromY)
+   	* it may not form a cluster of three.
+   	* @param board is the board, side is the side stepping, fromX/fromY is
+   	* the chip moved and x/y the square it steps to
+   	* @return returns true if the step is legal
+   	**/
+  	protected static boolean legalStep(GameBoard board, int side, int fromX, int fromY, int x, int y) {
+  		boolean edgeX = (x == 0 || x == DIMENSION - 1);
+  		boolean edgeY = (y == 0 || y == DIMENSION - 1);
+  		if (board.cellContents(x, y) != null || (edgeX && edgeY)
+  				|| (side == Chip.WHITE && edgeY) || (side == Chip.BLACK && edgeX)) {
+  			return false;
+  		}
+  		int friends = 0;
+  		int friendX = -1;
+  		int friendY = -1;
+  		for (int dx = -1; dx <= 1; dx++) {
+  			for (int dy = -1; dy <= 1; dy++) {
+  				if (isFriend(board, side, fromX, fromY, x + dx, y + dy)) {
+  					friends++;
+  					friendX = x + dx;
+  					friendY = y + dy;
+  				}
+  			}
+  		}
+  		if (friends != 1) {
+  			return friends == 0;
+  		}
+  		for (int dx = -1; dx <= 1; dx++) {
+  			for (int dy = -1; dy <= 1; dy++) {
+  				if ((dx != 0 || dy != 0) && isFriend(board, side, fromX, fromY, friendX + dx, friendY + dy)) {
+  					return false;
+  				}
+  			}
+  		}
+  		return true;
+  	}
+  	/**
+   	* isFriend() tells whether (x, y) holds a chip of side other than the
+   	* one lifted from (fromX, fromY).
+   	* @param board is the board, side the color, fromX/fromY the lifted chip,
+   	* x/y the square looked at (it may be off the board)
+   	* @return returns true for a chip of side
+   	**/
+  	protected static boolean isFriend(GameBoard board, int side, int fromX, int fromY, int x, int y) {
+  		Chip chip = board.cellContents(x, y);
+  		return chip != null && chip.color == side && (x != fromX || y != fromY);
+  	}
+  	/**
+   	* checkThreatMoves() checks threatMoves() for both sides against brute
+   	* force: every legal move, played out and checked for a network for the
+   	* mover and none for the opponent.
+   	* @param board is the position checked
+   	* @return returns the number of sides whose threats disagree
+   	**/
+  	protected static int checkThreatMoves(GameBoard board) throws InvalidNodeException {
+  		int[] threats = new int[MAX_MOVES];
+  		int[] moves = new int[MAX_MOVES];
+  		int mismatches = 0;
+  		for (int side = Chip.BLACK; side <= Chip.WHITE; side++) {
+  			int other = (side + 1) % 2;
+  			int count = board.threatMoves(side, threats);
+  			int expected = 0;
+  			int n = board.moveFinder(side, (board.chipCount(side) == 10) ? Move.STEP : Move.ADD, moves);
+  			for (int i = 0; i < n; i++) {
+  				board.performMove(side, moves[i]);
+  				if (board.findNetwork(side) && !board.findNetwork(other)) {
+  					expected++;
+  					if (!contains(threats, count, moves[i])) { count = -1; }
+  				}
+  				board.undoMove(side, moves[i]);
+  			}
+  			if (count != expected) { mismatches++; }
+  		}
+  		return mismatches;
+  	}
+  	/**
+   	* checkSymmetricKeys() checks the symmetric keys kept by addChip() and
+   	* removeChip(): for each symmetry, the position is built again from an
+   	* empty board with every chip moved by SYMMETRY, and the new board's
+   	* own key must match symmetricKey().  The images must also share the
+   	* canonical keys, and have a network exactly when the position does.
+   	* @param board is the position checked
+   	* @return returns the number of symmetries that fail
+   	**/
+  	protected static int checkSymmetricKeys(GameBoard board) throws InvalidNodeException {
+  		int failures = 0;
+  		for (int t = 0; t < SYMMETRIES; t++) {
+  			GameBoard image = new GameBoard();
+  			for (int color = Chip.BLACK; color <= Chip.WHITE; color++) {
+  				for (long c = board.bits[color]; c != 0; c &= c - 1) {
+  					int sq = SYMMETRY[t][Long.numberOfTrailingZeros(c)];
+  					image.addChip(color, sq % DIMENSION, sq / DIMENSION);
+  				}
+  			}
+  			image.setSideToMove(board.sideToMove());
+  			if (image.zobristKey() != board.symmetricKey(t) || image.canonicalKey() != board.canonicalKey()
+  					|| image.canonicalPieceKey() != board.canonicalPieceKey()
+  					|| image.findNetwork(Chip.BLACK) != board.findNetwork(Chip.BLACK)
+  					|| image.findNetwork(Chip.WHITE) != board.findNetwork(Chip.WHITE)) {
+  				failures++;
+  			}
+  		}
+  		return failures;
+  	}
+  	/**
+   	* contains() tells whether a move is among the first count of a buffer.
+   	* @param moves is the buffer, count the moves in it, move the move sought
+   	* @return returns true if move is there
+   	**/
+  	protected static boolean contains(int[] moves, int count, int move) {
+  		for (int i = 0; i < count; i++) {
+  			if (moves[i] == move) { return true; }
+  		}
+  		return false;
+  	}
 
 
   	
@@ -724,16 +1990,4 @@ public class GameBoard {
 	}**/
 
 
-}
-
-class Best {
-
-  protected Move move;
-  protected double score;
-
-  public Best() {
-  	move = null;
-  	score = 0;
-  }
-
 }
\ No newline at end of file
@@ -2,6 +2,12 @@
 
 package player;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  *  An implementation of an automatic Network player.  Keeps track of moves
  *  made by both players.  Can select a move for itself.
@@ -11,6 +17,118 @@ public class MachinePlayer extends Player {
   protected int color;
   protected int searchDepth;
   protected GameBoard gameboard;
+  protected TranspositionTable table;
+
+  // Search modes: plain alpha-beta, or principal variation search (each move
+  // after the first is tried with a null window and re-searched only if it
+  // might be better).
+  public static final int ALPHA_BETA = 0;
+  public static final int PVS = 1;
+
+  // Half-width of the aspiration window around the previous iteration's score.
+  protected static final double ASPIRATION_WINDOW = 2;
+
+  // Deepest search a timed move may attempt.
+  protected static final int MAX_DEPTH = 32;
+  // Share of the remaining game clock spent on one move.
+  protected static final int MOVES_TO_GO = 20;
+  // Smallest budget a timed move gets, in milliseconds.
+  protected static final long MIN_MOVE_TIME = 10;
+
+  // Time control: a fixed budget per move and/or a game clock, both in
+  // milliseconds.  With neither set, chooseMove() searches to searchDepth.
+  protected long moveTime;
+  protected long clockRemaining = -1;
+
+  // Search state shared with GameBoard.search(): the deadline (System.nanoTime(),
+  // 0 for none), whether it has passed, the node count, and the previous
+  // iteration's best move, which is searched first.
+  protected volatile long deadline;
+  protected volatile boolean timeUp;
+  protected long nodes;
+  protected int rootMove;
+  protected int completedDepth;
+
+  // Plain alpha-beta stays the default: on the benchmark positions PVS's
+  // re-searches cost more nodes than its null windows saved.
+  protected int searchMode = ALPHA_BETA;
+  protected boolean aspiration = true;
+
+  // Whether evalBoard() adds the flood-fill network features to the
+  // connection counts (see GameBoard.networkFeatures()).
+  protected boolean evalFeatures = true;
+
+  // Whether the search ends in quiesce() (threats and blocks only) instead
+  // of a bare evalBoard() at the horizon.  Off by default, like the forward
+  // pruning below: it costs about ten times the nodes of a fixed-depth move,
+  // and under a clock about a ply of depth.
+  protected boolean quiescence;
+
+  // Forward pruning in GameBoard.search(), each switched on separately:
+  // null moves, late move reductions and futility pruning.  pruned counts,
+  // per technique, the subtrees each one cut off or searched shallower in
+  // the last chooseMove() (fork-join contexts count into their master's).
+  public static final int NULL_MOVE = 0;
+  public static final int LATE_MOVE_REDUCTIONS = 1;
+  public static final int FUTILITY = 2;
+  protected boolean nullMove;
+  protected boolean lateMoveReductions;
+  protected boolean futilityPruning;
+  protected AtomicLongArray pruned = new AtomicLongArray(3);
+
+  // Game history: the key of every position reached so far in the game,
+  // after each move by either side.  search() scores a position that occurs
+  // again as a draw (see GameBoard.isRepetition()).  Helpers, ponderers and
+  // search contexts get a view of the history as it was when they started.
+  protected long[] gameKeys = new long[64];
+  protected int gamePlies;
+
+  // Lazy SMP: with threads > 1, chooseMove() also runs threads - 1 helper
+  // players on copies of the board.  They search the same position to varied
+  // depths and share this player's transposition table, so their work shows
+  // up as table hits in the main search.
+  protected int threads = 1;
+  protected MachinePlayer[] helpers;
+  protected Thread[] helperThreads;
+
+  // Young Brothers Wait: with a ForkJoinPool, search() splits nodes with at
+  // least SPLIT_DEPTH plies left and searches the younger brothers in
+  // parallel (see SplitPoint).  Each parallel task borrows a search context,
+  // a MachinePlayer with its own board whose "master" is this player.
+  protected static final int SPLIT_DEPTH = 3;
+  protected ForkJoinPool pool;
+  protected boolean deterministic;
+  protected MachinePlayer master;
+  protected SplitPoint split;
+  protected ConcurrentLinkedQueue<MachinePlayer> contexts = new ConcurrentLinkedQueue<MachinePlayer>();
+  protected AtomicLong splitNodes = new AtomicLong();
+
+  // Pondering: after chooseMove(), a background thread searches the position
+  // after the opponent's expected reply (the transposition table's best move
+  // there) on a separate player with its own board.  opponentMove() keeps
+  // that search running if the opponent played ponderMove and cancels it
+  // otherwise; either way its table entries are there for the next search.
+  protected static final long PONDER_TIME = 24L * 60 * 60 * 1000;
+  protected boolean pondering;
+  protected MachinePlayer ponderer;
+  protected Ponder ponder;
+  protected Thread ponderThread;
+  protected int ponderMove;
+  protected boolean ponderHit;
+
+  // Opening book: chooseMove() plays the book move when the position is in
+  // the book, without searching.  randomOpening is normally on: a side with
+  // at most one chip opens on a random goal square (BookGenerator turns it
+  // off to search those positions).
+  protected OpeningBook book;
+  protected boolean randomOpening = true;
+
+  // Proof-number solver: if set, chooseMove() first tries to prove a network
+  // within solverMoves of this player's moves, and plays the proof's first
+  // move without searching.  If the proof fails or runs out of nodes or
+  // time, the normal search runs.
+  protected ProofSolver solver;
+  protected int solverMoves;
 
   // Creates a machine player with the given color.  Color is either 0 (black)
   // or 1 (white).  (White has the first move.)
@@ -18,6 +136,7 @@ public class MachinePlayer extends Player {
     this.color = color;
     this.searchDepth = 2;
     this.gameboard = new GameBoard();
+    this.table = new TranspositionTable();
   }
 
   // Creates a machine player with the given color and search depth.  Color is
@@ -26,15 +145,83 @@ public class MachinePlayer extends Player {
     this.color = color;
     this.searchDepth = searchDepth;
     this.gameboard = new GameBoard();
+    this.table = new TranspositionTable();
+  }
+
+  // Creates a helper for "master": same color, settings and transposition
+  // table, but its own copy of the board.
+  protected MachinePlayer(MachinePlayer master) {
+    this.color = master.color;
+    this.searchDepth = master.searchDepth;
+    this.gameboard = new GameBoard(master.gameboard);
+    this.table = master.table;
+    copySettings(master);
+  }
+
+  // Copies the search settings of "master": search mode, aspiration, random
+  // opening, evaluation features, quiescence and forward pruning.  Helpers,
+  // the ponderer and search contexts take them before every search.
+  protected void copySettings(MachinePlayer master) {
+    this.searchMode = master.searchMode;
+    this.aspiration = master.aspiration;
+    this.randomOpening = master.randomOpening;
+    this.evalFeatures = master.evalFeatures;
+    this.quiescence = master.quiescence;
+    this.nullMove = master.nullMove;
+    this.lateMoveReductions = master.lateMoveReductions;
+    this.futilityPruning = master.futilityPruning;
   }
 
   // Returns a new move by "this" player.  Internally records the move (updates
   // the internal game board) as a move by "this" player.
   public Move chooseMove() {
     try {
-      Best bestMove = gameboard.findBestMove(color, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 
-          0, this);
+      long start = System.currentTimeMillis();
+      long budget = moveBudget();
+      Best bestMove = probeBook();
+      if (bestMove == null) {
+        bestMove = proveNetwork(budget);
+        if (budget > 0) {
+          // The solver's time comes out of the move's budget.
+          budget = Math.max(MIN_MOVE_TIME, budget - (System.currentTimeMillis() - start));
+        }
+      }
+      if (bestMove != null) {
+        stopPondering();
+        nodes = 0;
+        splitNodes.set(0);
+        clearPruned();
+        completedDepth = 0;
+      } else {
+        bestMove = finishPondering(budget);
+      }
+      if (bestMove == null) {
+        // The transposition table is kept between moves; entries from earlier
+        // moves age out as new ones arrive.
+        table.newSearch();
+        gameboard.newSearch();
+        nodes = 0;
+        splitNodes.set(0);
+        clearPruned();
+        gameboard.setSideToMove(color);
+        startHelpers();
+        try {
+          if (budget > 0) {
+            bestMove = iterativeDeepening(budget);
+          } else {
+            bestMove = searchRoot(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            completedDepth = searchDepth;
+          }
+        } finally {
+          stopHelpers();
+        }
+      }
+      if (clockRemaining >= 0) {
+        clockRemaining = Math.max(0, clockRemaining - (System.currentTimeMillis() - start));
+      }
       gameboard.performMove(color, bestMove.move);
+      recordPosition();
+      startPondering(budget);
       //System.out.println("Bestmove Score " + bestMove.score);
       return bestMove.move;
     } catch (InvalidNodeException e) {
@@ -43,6 +230,476 @@ public class MachinePlayer extends Player {
     return null;
   } 
 
+  // Limits every following chooseMove() to about "millis" milliseconds, using
+  // iterative deepening instead of the fixed searchDepth.  0 turns it off.
+  public void setMoveTime(long millis) {
+    this.moveTime = millis;
+  }
+
+  // Gives this player a game clock of "millis" milliseconds.  Each
+  // chooseMove() spends a share of what is left and deducts the time it took.
+  // A negative value turns the clock off.
+  public void setGameClock(long millis) {
+    this.clockRemaining = millis;
+  }
+
+  // Sets the number of search threads used by chooseMove().  1 (the default)
+  // searches on the calling thread only.
+  public void setThreads(int n) {
+    this.threads = Math.max(1, n);
+  }
+
+  // Starts the helper threads for one move, each on a fresh copy of the
+  // current board.
+  protected void startHelpers() {
+    if (threads <= 1) {
+      return;
+    }
+    if (helpers == null || helpers.length != threads - 1) {
+      helpers = new MachinePlayer[threads - 1];
+      helperThreads = new Thread[threads - 1];
+      for (int i = 0; i < helpers.length; i++) {
+        helpers[i] = new MachinePlayer(this);
+      }
+    }
+    for (int i = 0; i < helpers.length; i++) {
+      MachinePlayer helper = helpers[i];
+      helper.gameboard.copyFrom(gameboard);
+      helper.gameboard.newSearch();
+      helper.copySettings(this);
+      helper.gameKeys = gameKeys;
+      helper.gamePlies = gamePlies;
+      helper.nodes = 0;
+      helper.timeUp = false;
+      helperThreads[i] = new Thread(new SearchHelper(helper, 1 + i % 2), "search-helper-" + i);
+      helperThreads[i].setDaemon(true);
+      helperThreads[i].start();
+    }
+  }
+
+  // Stops the helper threads, waits for them, and adds their node counts to
+  // this player's.
+  protected void stopHelpers() {
+    if (helperThreads == null) {
+      return;
+    }
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].timeUp = true;
+    }
+    for (int i = 0; i < helperThreads.length; i++) {
+      if (helperThreads[i] == null) {
+        continue;
+      }
+      join(helperThreads[i]);
+      helperThreads[i] = null;
+      nodes += helpers[i].nodes;
+    }
+  }
+
+  // Waits for "thread" to finish.  An interrupt while waiting is passed on
+  // to the calling thread once the wait is over.
+  protected static void join(Thread thread) {
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Gives this player an opening book (see OpeningBook and BookGenerator), or
+  // takes it away if "book" is null.
+  public void setOpeningBook(OpeningBook book) {
+    this.book = book;
+  }
+
+  // Returns the book move for the current position, or null if there is no
+  // book or the position is not in it.
+  protected Best probeBook() throws InvalidNodeException {
+    if (book == null) {
+      return null;
+    }
+    gameboard.setSideToMove(color);
+    int symmetry = gameboard.canonicalTransform();
+    int i = book.find(gameboard.symmetricKey(symmetry));
+    if (i < 0) {
+      return null;
+    }
+    int move = PackedMove.transform(book.move(i), symmetry);
+    if (!gameboard.isValidMove(color, move)) {
+      return null;
+    }
+    Best best = new Best();
+    best.move = PackedMove.toMove(move);
+    best.score = book.score(i);
+    return best;
+  }
+
+  // Turns on the proof-number solver: it may use "maxNodes" nodes to look
+  // for a forced network within "maxMoves" of this player's moves.  A
+  // maxNodes of 0 turns it off.
+  public void setSolver(int maxNodes, int maxMoves) {
+    this.solver = (maxNodes > 0) ? new ProofSolver(maxNodes) : null;
+    this.solverMoves = maxMoves;
+  }
+
+  // Returns the first move of a forced network for this player, or null if
+  // there is no solver or it proved none.  A timed move ("budget" > 0) gives
+  // the solver at most that many milliseconds.
+  protected Best proveNetwork(long budget) throws InvalidNodeException {
+    if (solver == null || solverMoves <= 0) {
+      return null;
+    }
+    if (gameboard.hasValidNetwork(color) || gameboard.hasValidNetwork((color + 1) % 2)) {
+      return null;
+    }
+    gameboard.setSideToMove(color);
+    solver.setDeadline((budget > 0) ? System.nanoTime() + budget * 1000000 : 0);
+    if (solver.solve(gameboard, color, solverMoves) != ProofSolver.PROVEN) {
+      return null;
+    }
+    Best best = new Best();
+    best.move = PackedMove.toMove(solver.bestMove());
+    best.score = GameBoard.NETWORK_THRESHOLD;
+    return best;
+  }
+
+  // Turns pondering (searching on the opponent's time) on or off.  Turning
+  // it off stops any ponder search that is running.
+  public void setPondering(boolean on) {
+    this.pondering = on;
+    if (!on) {
+      stopPondering();
+    }
+  }
+
+  // Starts pondering after this player has moved: predicts the opponent's
+  // reply and searches the position after it in the background.  "budget"
+  // is the time budget of the move just made (0 for a fixed-depth search).
+  protected void startPondering(long budget) throws InvalidNodeException {
+    if (!pondering) {
+      return;
+    }
+    int opponent = (color + 1) % 2;
+    if (gameboard.hasValidNetwork(color) || gameboard.hasValidNetwork(opponent)) {
+      return;
+    }
+    int symmetry = gameboard.canonicalTransform();
+    long entry = table.probe(gameboard.symmetricKey(symmetry));
+    int predicted = PackedMove.transform(TranspositionTable.move(entry), symmetry);
+    if (entry == 0 || predicted == PackedMove.NONE || !gameboard.isValidMove(opponent, predicted)) {
+      return;
+    }
+    if (ponderer == null) {
+      ponderer = new MachinePlayer(this);
+    }
+    ponderer.gameboard.copyFrom(gameboard);
+    ponderer.gameboard.performMove(opponent, predicted);
+    if (ponderer.gameboard.hasValidNetwork(opponent)) {
+      return;
+    }
+    ponderer.gameboard.newSearch();
+    ponderer.copySettings(this);
+    ponderer.gameKeys = gameKeys;
+    ponderer.gamePlies = gamePlies;
+    ponderer.searchDepth = searchDepth;
+    // The deadline and flags are set here, not on the ponder thread, so a
+    // cancel or a new deadline from this thread can never be overwritten.
+    ponderer.deadline = System.nanoTime() + PONDER_TIME * 1000000;
+    ponderer.timeUp = false;
+    ponderer.nodes = 0;
+    ponderer.clearPruned();
+    ponderMove = predicted;
+    ponderHit = false;
+    ponder = new Ponder(ponderer, (budget > 0) ? MAX_DEPTH : searchDepth);
+    ponderThread = new Thread(ponder, "ponder");
+    ponderThread.setDaemon(true);
+    ponderThread.start();
+  }
+
+  // Cancels the ponder search, if any, and waits for it to stop.
+  protected void stopPondering() {
+    if (ponderThread == null) {
+      return;
+    }
+    ponderer.timeUp = true;
+    join(ponderThread);
+    ponderThread = null;
+    ponder = null;
+    ponderHit = false;
+  }
+
+  // Called by chooseMove().  If the opponent played the predicted reply, lets
+  // the ponder search run for "budget" more milliseconds (or to searchDepth
+  // for a fixed-depth search) and returns its result.  Otherwise returns
+  // null and chooseMove() searches as usual.
+  protected Best finishPondering(long budget) {
+    if (ponderThread == null) {
+      return null;
+    }
+    if (!ponderHit) {
+      stopPondering();
+      return null;
+    }
+    if (budget > 0) {
+      ponderer.deadline = System.nanoTime() + budget * 1000000;
+    }
+    join(ponderThread);
+    Best best = ponder.best;
+    nodes = ponderer.nodes;
+    splitNodes.set(0);
+    for (int i = 0; i < pruned.length(); i++) {
+      pruned.set(i, ponderer.pruned.get(i));
+    }
+    completedDepth = ponderer.completedDepth;
+    ponderThread = null;
+    ponder = null;
+    ponderHit = false;
+    if (best == null || best.move == null) {
+      return null;
+    }
+    return best;
+  }
+
+  // Selects the search algorithm: ALPHA_BETA (the default) or PVS.  Both find
+  // the same score; use nodeCount() to compare how much work they do.
+  public void setSearchMode(int mode) {
+    this.searchMode = mode;
+  }
+
+  // Turns the flood-fill network features of the evaluation on or off.
+  public void setEvalFeatures(boolean on) {
+    this.evalFeatures = on;
+  }
+
+  // Turns the threat quiescence search at the horizon on or off.
+  public void setQuiescence(boolean on) {
+    this.quiescence = on;
+  }
+
+  // Turns null move pruning on or off.
+  public void setNullMove(boolean on) {
+    this.nullMove = on;
+  }
+
+  // Turns late move reductions on or off.
+  public void setLateMoveReductions(boolean on) {
+    this.lateMoveReductions = on;
+  }
+
+  // Turns futility pruning one ply above the horizon on or off.
+  public void setFutilityPruning(boolean on) {
+    this.futilityPruning = on;
+  }
+
+  // Returns how many subtrees "technique" (NULL_MOVE, LATE_MOVE_REDUCTIONS or
+  // FUTILITY) pruned or reduced in the last chooseMove().
+  public long prunedCount(int technique) {
+    return pruned.get(technique);
+  }
+
+  // Appends the position on the board to the game history.
+  protected void recordPosition() {
+    if (gamePlies == gameKeys.length) {
+      gameKeys = Arrays.copyOf(gameKeys, 2 * gamePlies);
+    }
+    gameKeys[gamePlies++] = gameboard.zobristKey();
+  }
+
+  // Zeroes the pruning counts.
+  protected void clearPruned() {
+    for (int i = 0; i < pruned.length(); i++) {
+      pruned.set(i, 0);
+    }
+  }
+
+  // Turns aspiration windows on or off for timed (iterative deepening) moves.
+  public void setAspiration(boolean on) {
+    this.aspiration = on;
+  }
+
+  // Returns the number of positions searched by the last chooseMove(),
+  // counting every thread.
+  public long nodeCount() {
+    return nodes + splitNodes.get();
+  }
+
+  // Returns the share of hasValidNetwork() calls on this player's board
+  // answered from its network cache since the game began.
+  public double networkCacheHitRate() {
+    return gameboard.networkCache.hitRate();
+  }
+
+  // Starts a new game with the same settings: empties the board, the game
+  // history, the transposition table and the network cache (whose hit rate
+  // starts over), and stops any ponder search.
+  public void newGame() {
+    stopPondering();
+    gameboard.copyFrom(new GameBoard());
+    gameboard.networkCache.clear();
+    table.clear();
+    gamePlies = 0;
+  }
+
+  // Searches the root on "n" fork-join threads (Young Brothers Wait).  0 or 1
+  // searches serially.
+  public void setForkJoinThreads(int n) {
+    if (pool != null) {
+      pool.shutdown();
+    }
+    pool = (n > 1) ? new ForkJoinPool(n) : null;
+  }
+
+  // In deterministic mode, the fork-join search runs the younger brothers in
+  // batches of one per thread, all with the same window, and leaves the
+  // transposition table out of the parallel tasks, so node counts are
+  // reproducible from run to run (for a given number of threads).
+  public void setDeterministic(boolean on) {
+    this.deterministic = on;
+  }
+
+  // Runs findBestMove() from the root, inside the fork-join pool if there is one.
+  protected Best searchRoot(double alpha, double beta) throws InvalidNodeException {
+    if (pool == null) {
+      return gameboard.findBestMove(color, alpha, beta, 0, this);
+    }
+    return pool.invoke(new RootSearch(this, alpha, beta));
+  }
+
+  // Returns the player that owns this search: the master of a search
+  // context, otherwise this player.
+  protected MachinePlayer root() {
+    return (master != null) ? master : this;
+  }
+
+  // Returns true if the search on this player should stop: time is up, or
+  // (for a search context) the split point it works for no longer needs it.
+  protected boolean stopped() {
+    return timeUp || (split != null && split.isCut());
+  }
+
+  // Stops a timed search once its deadline has passed.  The first iteration
+  // is always allowed to finish so there is a move to fall back on.
+  protected void checkClock() {
+    if (deadline != 0 && searchDepth > 1 && System.nanoTime() >= deadline) {
+      timeUp = true;
+      root().timeUp = true;
+    }
+  }
+
+  // Returns true if a node with "remaining" plies left should be split.
+  protected boolean canSplit(int remaining) {
+    return remaining >= SPLIT_DEPTH && root().pool != null;
+  }
+
+  // Lends a search context to a SiblingTask of "split", set up to search like
+  // "owner".
+  protected MachinePlayer acquireContext(MachinePlayer owner, SplitPoint split) {
+    MachinePlayer context = contexts.poll();
+    if (context == null) {
+      context = new MachinePlayer(this);
+      context.master = this;
+    }
+    context.split = split;
+    context.searchDepth = owner.searchDepth;
+    context.copySettings(this);
+    context.pruned = pruned;
+    context.gameKeys = owner.gameKeys;
+    context.gamePlies = owner.gamePlies;
+    context.deadline = owner.deadline;
+    context.table = deterministic ? null : table;
+    context.rootMove = PackedMove.NONE;
+    context.timeUp = false;
+    // A context's node count keeps running between loans; only the nodes of
+    // this loan are added up.
+    splitNodes.addAndGet(-context.nodes);
+    context.gameboard.copyOrdering(owner.gameboard);
+    return context;
+  }
+
+  // Takes back a search context and adds the nodes it searched to this
+  // player's count.
+  protected void releaseContext(MachinePlayer context) {
+    splitNodes.addAndGet(context.nodes);
+    context.split = null;
+    contexts.offer(context);
+  }
+
+  // Returns the time budget for the next move in milliseconds, or 0 for a
+  // fixed-depth search.
+  protected long moveBudget() {
+    long budget = 0;
+    if (clockRemaining >= 0) {
+      budget = Math.max(MIN_MOVE_TIME, clockRemaining / MOVES_TO_GO);
+    }
+    if (moveTime > 0) {
+      budget = (budget > 0) ? Math.min(budget, moveTime) : moveTime;
+    }
+    return budget;
+  }
+
+  // Searches to depth 1, 2, 3... until "budget" milliseconds have passed, and
+  // returns the best move of the deepest iteration that finished.  Each
+  // iteration searches the previous one's best move first and, with
+  // aspiration on, starts with a narrow window around the previous score,
+  // widening to the full window if the score falls outside it.
+  protected Best iterativeDeepening(long budget) throws InvalidNodeException {
+    deadline = System.nanoTime() + budget * 1000000;
+    timeUp = false;
+    nodes = 0;
+    return deepen(MAX_DEPTH);
+  }
+
+  // The iterations of iterativeDeepening(), up to "maxDepth", against the
+  // deadline already set.  The deadline may be moved while this runs (see
+  // finishPondering()), and setting timeUp cancels it.
+  protected Best deepen(int maxDepth) throws InvalidNodeException {
+    int fixedDepth = searchDepth;
+    Best best = null;
+    double lastScore = 0;
+    rootMove = PackedMove.NONE;
+    try {
+      for (int depth = 1; depth <= maxDepth; depth++) {
+        searchDepth = depth;
+        Best result = null;
+        if (aspiration && best != null && Math.abs(lastScore) < GameBoard.NETWORK_THRESHOLD) {
+          double low = lastScore - ASPIRATION_WINDOW;
+          double high = lastScore + ASPIRATION_WINDOW;
+          result = searchRoot(low, high);
+          if (result.score <= low || result.score >= high || result.move == null) {
+            result = null;
+          }
+        }
+        if (result == null && !timeUp) {
+          result = searchRoot(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+        if (timeUp) {
+          break;
+        }
+        best = result;
+        lastScore = result.score;
+        completedDepth = depth;
+        if (result.move != null) {
+          rootMove = PackedMove.fromMove(result.move);
+        }
+        if (System.nanoTime() >= deadline) {
+          break;
+        }
+      }
+    } finally {
+      searchDepth = fixedDepth;
+      deadline = 0;
+      timeUp = false;
+      rootMove = PackedMove.NONE;
+    }
+    return best;
+  }
+
   // If the Move m is legal, records the move as a move by the opponent
   // (updates the internal game board) and returns true.  If the move is
   // illegal, returns false without modifying the internal state of "this"
@@ -50,7 +707,13 @@ public class MachinePlayer extends Player {
   public boolean opponentMove(Move m) {
     try {
       if (gameboard.isValidMove((color + 1) % 2, m)) {
+        if (ponderThread != null && PackedMove.fromMove(m) == ponderMove) {
+          ponderHit = true;
+        } else {
+          stopPondering();
+        }
         gameboard.performMove((color + 1) % 2, m);
+        recordPosition();
         return true;
       }
       return false;
@@ -68,7 +731,9 @@ public class MachinePlayer extends Player {
   public boolean forceMove(Move m) {
     try {
       if (gameboard.isValidMove(color, m)) {
+        stopPondering();
         gameboard.performMove(color, m);
+        recordPosition();
         return true;
       }
       return false;
@@ -87,9 +752,62 @@ public class MachinePlayer extends Player {
     machine0.gameboard.addChip(0, 6, 5);
 
     System.out.println(machine0.chooseMove());
+    System.out.println(machine0.nodeCount() + " nodes, " + machine0.gameboard.networkCache);
   }
 
 
 }
 
+/**
+ *  A SearchHelper runs one Lazy SMP helper: iterative deepening on the
+ *  helper's own board, starting at "firstDepth", until the main search sets
+ *  the helper's timeUp flag.  Its results reach the main search only through
+ *  the shared transposition table.
+ */
+class SearchHelper implements Runnable {
+
+  protected MachinePlayer helper;
+  protected int firstDepth;
+
+  SearchHelper(MachinePlayer helper, int firstDepth) {
+    this.helper = helper;
+    this.firstDepth = firstDepth;
+  }
 
+  public void run() {
+    try {
+      for (int depth = firstDepth; depth <= MachinePlayer.MAX_DEPTH && !helper.timeUp; depth++) {
+        helper.searchDepth = depth;
+        helper.gameboard.findBestMove(helper.color, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 
+            0, helper);
+      }
+    } catch (InvalidNodeException e) {
+      e.printStackTrace();
+    }
+  }
+}
+
+/**
+ *  A Ponder runs the ponder search: iterative deepening on the ponderer's
+ *  board, up to "maxDepth", until the ponderer's deadline passes or its
+ *  timeUp flag is set.  The result is read after the thread is joined.
+ */
+class Ponder implements Runnable {
+
+  protected MachinePlayer ponderer;
+  protected int maxDepth;
+  protected Best best;
+
+  Ponder(MachinePlayer ponderer, int maxDepth) {
+    this.ponderer = ponderer;
+    this.maxDepth = maxDepth;
+  }
+
+  public void run() {
+    try {
+      best = ponderer.deepen(maxDepth);
+    } catch (InvalidNodeException e) {
+      e.printStackTrace();
+    }
+  }
+}
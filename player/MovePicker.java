@@ -0,0 +1,167 @@
+package player;
+
+
+/**
+ *  A MovePicker hands out the moves of one search node one at a time, in
+ *  stages, so that a node which cuts off on its first moves never generates
+ *  or orders the rest: first the move searched first (the previous
+ *  iteration's best move at the root) and the hash move, then the moves
+ *  that complete a network, and only then every other legal move, in
+ *  killer and history order.  GameBoard keeps one per ply.
+ */
+class MovePicker {
+
+	/* Stages, in the order moves are handed out. */
+	protected static final int FIRST = 0;
+	protected static final int HASH = 1;
+	protected static final int THREATS = 2;
+	protected static final int GENERATE = 3;
+	protected static final int REST = 4;
+	protected static final int DONE = 5;
+
+	/* Most threats handed out in the THREATS stage; any others come with the
+	 * rest of the moves. */
+	protected static final int MAX_THREATS = 16;
+
+	protected GameBoard board;
+	protected int[] moves;
+	protected int[] scores;
+	protected int[] threats;
+
+	protected int side;
+	protected int depth;
+	protected int first;
+	protected int hashMove;
+	protected boolean findThreats;
+	protected int stage;
+	protected int threatCount;
+	protected int count;
+	protected int index;
+	protected boolean quiet;
+
+	/**
+   	* MovePicker() returns a picker for one ply of board's search.
+   	* @param board is the board searched, moves and scores are the ply's
+   	* move and ordering score buffers (MAX_MOVES entries each)
+   	* @return this method has no return value
+   	**/
+	MovePicker(GameBoard board, int[] moves, int[] scores) {
+		this.board = board;
+		this.moves = moves;
+		this.scores = scores;
+		this.threats = new int[MAX_THREATS];
+	}
+	/**
+   	* init() starts handing out the moves of a new node.
+   	* Unusual Conditions: first and hashMove may be NONE or illegal here;
+   	* they are checked before being handed out
+   	* @param side is the side to move, depth is the node's ply, first is the
+   	* move to search first, hashMove is the transposition table's move,
+   	* findThreats is false to skip the THREATS stage
+   	* @return no return value
+   	**/
+	protected void init(int side, int depth, int first, int hashMove, boolean findThreats) {
+		this.side = side;
+		this.depth = depth;
+		this.first = first;
+		this.hashMove = (hashMove == first) ? PackedMove.NONE : hashMove;
+		this.findThreats = findThreats;
+		stage = FIRST;
+		threatCount = 0;
+		quiet = false;
+	}
+	/**
+   	* next() returns the next move to search.
+   	* @param this method has no parameters
+   	* @return returns a legal packed move, or PackedMove.NONE when there are
+   	* no moves left
+   	**/
+	@SuppressWarnings("fallthrough")
+	protected int next() throws InvalidNodeException {
+		// Each stage falls through to the next one when it has nothing left.
+		switch (stage) {
+		case FIRST:
+			stage = HASH;
+			if (legal(first)) { return first; }
+			// fall through
+		case HASH:
+			stage = THREATS;
+			if (legal(hashMove)) { return hashMove; }
+			// fall through
+		case THREATS:
+			if (threatCount == 0 && findThreats) {
+				threatCount = board.threatMoves(side, threats, MAX_THREATS);
+				index = 0;
+			}
+			while (index < threatCount) {
+				int m = threats[index++];
+				if (m != first && m != hashMove) { return m; }
+			}
+			stage = GENERATE;
+			// fall through
+		case GENERATE:
+			count = board.moveFinder(side, (board.chipCount(side) == 10) ? Move.STEP : Move.ADD, moves);
+			board.scoreMoves(moves, scores, count, depth, first, hashMove);
+			index = 0;
+			stage = REST;
+			// fall through
+		case REST:
+			while (index < count) {
+				int m = GameBoard.nextMove(moves, scores, index, count);
+				int score = scores[index++];
+				if (m == first || m == hashMove || isThreat(m)) { continue; }
+				quiet = score < Integer.MAX_VALUE - 3;
+				return m;
+			}
+			stage = DONE;
+			// fall through
+		default:
+			return PackedMove.NONE;
+		}
+	}
+	/**
+   	* drain() hands out all the moves left at once, in order.
+   	* @param out receives the moves (MAX_MOVES entries)
+   	* @return returns the number of moves written to out
+   	**/
+	protected int drain(int[] out) throws InvalidNodeException {
+		int n = 0;
+		for (int m = next(); m != PackedMove.NONE; m = next()) {
+			out[n++] = m;
+		}
+		return n;
+	}
+	/**
+   	* isQuiet() tells whether the last move handed out is an ordinary move:
+   	* not the first or hash move, not a network, and not a killer.
+   	* @param this method has no parameters
+   	* @return returns true for a quiet move
+   	**/
+	protected boolean isQuiet() {
+		return stage >= REST && quiet;
+	}
+	/**
+   	* legal() checks a move that did not come from the move generator.
+   	* @param m is a packed move
+   	* @return returns true if m is a legal move for side in this position
+   	**/
+	private boolean legal(int m) throws InvalidNodeException {
+		if (m == PackedMove.NONE) {
+			return false;
+		}
+		int kind = (board.chipCount(side) == 10) ? Move.STEP : Move.ADD;
+		if (PackedMove.kind(m) != kind) {
+			return false;
+		}
+		if (kind == Move.STEP && (board.bits[side] >>> PackedMove.from(m) & 1L) == 0) {
+			return false;
+		}
+		return board.isValidMove(side, m);
+	}
+	private boolean isThreat(int m) {
+		for (int i = 0; i < threatCount; i++) {
+			if (threats[i] == m) { return true; }
+		}
+		return false;
+	}
+}
@@ -0,0 +1,113 @@
+package player;
+
+import java.util.Arrays;
+
+/**
+ *  NetworkCache remembers the result of GameBoard.hasValidNetwork() for
+ *  recently seen positions.  It is a direct-mapped table keyed by the
+ *  position's canonical Zobrist key (without the side to move, see
+ *  GameBoard.canonicalPieceKey()) and the side checked.
+ *  A colliding entry is simply overwritten, so the table stays bounded.
+ */
+public class NetworkCache {
+
+	public static final int UNKNOWN = -1;
+
+	/* Default size: 2^12 entries. */
+	protected static final int DEFAULT_BITS = 12;
+
+	/* Mixed into the key for White so both sides share one table. */
+	private static final long WHITE_SALT = 0x9E3779B97F4A7C15L;
+
+	protected int mask;
+	protected long[] keys;
+	protected boolean[] results;
+	protected int[] stamps;
+	protected int stamp;
+
+	protected long hits;
+	protected long misses;
+
+	/**
+   	* NetworkCache() returns an empty cache with 2^DEFAULT_BITS entries.
+   	* @param this method has no parameters
+   	* @return this method has no return value
+   	**/
+	public NetworkCache() {
+		this(DEFAULT_BITS);
+	}
+	/**
+   	* NetworkCache() returns an empty cache with 2^sizeBits entries.
+   	* @param sizeBits is the log2 of the number of entries
+   	* @return this method has no return value
+   	**/
+	public NetworkCache(int sizeBits) {
+		int size = 1 << sizeBits;
+		mask = size - 1;
+		keys = new long[size];
+		results = new boolean[size];
+		stamps = new int[size];
+		stamp = 1;
+	}
+	/**
+   	* probe() looks up the network result for a position and side.
+   	* @param key is the Zobrist key of the chips on the board, side is the color checked
+   	* @return returns 1 for a network, 0 for none, or UNKNOWN if not cached
+   	**/
+	public int probe(long key, int side) {
+		if (side == Chip.WHITE) { key ^= WHITE_SALT; }
+		int slot = (int) (key ^ key >>> 32) & mask;
+		if (stamps[slot] == stamp && keys[slot] == key) {
+			hits++;
+			return results[slot] ? 1 : 0;
+		}
+		misses++;
+		return UNKNOWN;
+	}
+	/**
+   	* store() records the network result for a position and side.
+   	* @param key is the Zobrist key of the chips on the board, side is the color
+   	* checked, result is whether side has a network
+   	* @return no return value
+   	**/
+	public void store(long key, int side, boolean result) {
+		if (side == Chip.WHITE) { key ^= WHITE_SALT; }
+		int slot = (int) (key ^ key >>> 32) & mask;
+		keys[slot] = key;
+		results[slot] = result;
+		stamps[slot] = stamp;
+	}
+	/**
+   	* clear() empties the cache in O(1) by invalidating every entry's stamp,
+   	* and resets the statistics.
+   	* @param this method has no parameters
+   	* @return no return value
+   	**/
+	public void clear() {
+		stamp++;
+		if (stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		hits = 0;
+		misses = 0;
+	}
+	/**
+   	* hitRate() returns the fraction of probes answered from the cache since
+   	* it was created or last cleared.
+   	* @param this method has no parameters
+   	* @return returns a value between 0 and 1 (0 if there were no probes)
+   	**/
+	public double hitRate() {
+		long probes = hits + misses;
+		return (probes == 0) ? 0 : (double) hits / probes;
+	}
+
+	public long hits() { return hits; }
+
+	public long misses() { return misses; }
+
+	public String toString() {
+		return "network cache: " + hits + " hits, " + misses + " misses (" + Math.round(hitRate() * 100) + "%)";
+	}
+}
@@ -0,0 +1,103 @@
+package player;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  OpeningBook is a read-only table of position key -> best move and score,
+ *  kept on disk and memory-mapped, so a lookup costs a binary search over the
+ *  mapped file and nothing is loaded onto the heap.
+ *
+ *  File layout (big-endian): the int MAGIC, the int number of entries, then
+ *  the entries sorted by key, 16 bytes each: the long canonical key (see
+ *  GameBoard.canonicalKey(), which includes the side to move), the int packed
+ *  move in the canonical orientation (see PackedMove.transform()) and the
+ *  float score from the side to move's point of view.  BookGenerator writes
+ *  these files.
+ */
+public class OpeningBook {
+
+	public static final int MAGIC = 0x4E424B32;
+
+	protected static final int HEADER = 8;
+	protected static final int ENTRY = 16;
+
+	protected MappedByteBuffer buffer;
+	protected int size;
+
+	/**
+   	* OpeningBook() maps a book file into memory.
+   	* @param path is the book file's path
+   	* @return this method has no return value
+   	**/
+	public OpeningBook(String path) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			channel.close();
+		}
+		if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+			throw new IOException(path + " is not an opening book");
+		}
+		size = buffer.getInt(4);
+		if (size < 0 || buffer.capacity() < HEADER + (long) size * ENTRY) {
+			throw new IOException(path + " is truncated");
+		}
+	}
+	/**
+   	* find() looks up a position by binary search.  Reads are absolute, so
+   	* several threads may share one book.
+   	* @param key is the canonical key of the position
+   	* @return returns the index of the position's entry, or -1 if it is not
+   	* in the book
+   	**/
+	public int find(long key) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long k = key(mid);
+			if (k < key) { low = mid + 1; }
+			else if (k > key) { high = mid - 1; }
+			else { return mid; }
+		}
+		return -1;
+	}
+
+	public int size() { return size; }
+
+	public long key(int i) { return buffer.getLong(HEADER + i * ENTRY); }
+
+	public int move(int i) { return buffer.getInt(HEADER + i * ENTRY + 8); }
+
+	public double score(int i) { return buffer.getFloat(HEADER + i * ENTRY + 12); }
+
+	/**
+   	* write() writes a book file.
+   	* Unusual Conditions: keys must be sorted in ascending order and distinct
+   	* @param path is the file to write, keys, moves and scores are the
+   	* entries, count is the number of entries
+   	* @return no return value
+   	**/
+	public static void write(String path, long[] keys, int[] moves, float[] scores, int count) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(count);
+			for (int i = 0; i < count; i++) {
+				out.writeLong(keys[i]);
+				out.writeInt(moves[i]);
+				out.writeFloat(scores[i]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package player;
+
+
+/**
+ *  PackedMove holds a Move in a single int so the search can generate and
+ *  store moves without allocating.  Bits 0-5 are the square (x1, y1) as
+ *  given by GameBoard.square(), bits 6-11 are the square (x2, y2) and bits
+ *  12-13 are the moveKind.  NONE (0) means "no move".
+ */
+public class PackedMove {
+
+	public static final int NONE = 0;
+
+	/**
+   	* add() packs an add move to (x, y).
+   	* @param x and y are the position the chip is added to
+   	* @return returns the packed move
+   	**/
+	public static int add(int x, int y) {
+		return Move.ADD << 12 | GameBoard.square(x, y);
+	}
+	/**
+   	* step() packs a step move from (x2, y2) to (x1, y1), in the same
+   	* argument order as the Move constructor.
+   	* @param x1 and y1 are the new position, x2 and y2 the old position
+   	* @return returns the packed move
+   	**/
+	public static int step(int x1, int y1, int x2, int y2) {
+		return Move.STEP << 12 | GameBoard.square(x2, y2) << 6 | GameBoard.square(x1, y1);
+	}
+
+	public static int kind(int m) { return m >>> 12; }
+
+	public static int to(int m) { return m & 63; }
+
+	public static int from(int m) { return m >>> 6 & 63; }
+
+	public static int x1(int m) { return to(m) % GameBoard.DIMENSION; }
+
+	public static int y1(int m) { return to(m) / GameBoard.DIMENSION; }
+
+	public static int x2(int m) { return from(m) % GameBoard.DIMENSION; }
+
+	public static int y2(int m) { return from(m) / GameBoard.DIMENSION; }
+
+	/**
+   	* transform() moves a packed move through one of the board's symmetries
+   	* (see GameBoard.SYMMETRY).  Each symmetry is its own inverse, so the
+   	* same call takes a move into a canonical orientation and back out.
+   	* @param m is the packed move, t is the symmetry
+   	* @return returns the transformed packed move (NONE if m is NONE)
+   	**/
+	public static int transform(int m, int t) {
+		if (m == NONE || t == 0) {
+			return m;
+		}
+		int to = GameBoard.SYMMETRY[t][to(m)];
+		int from = (kind(m) == Move.STEP) ? GameBoard.SYMMETRY[t][from(m)] : 0;
+		return kind(m) << 12 | from << 6 | to;
+	}
+	/**
+   	* toMove() unpacks a move into a Move object.
+   	* @param m is the packed move
+   	* @return returns the equivalent Move, or null if m is NONE
+   	**/
+	public static Move toMove(int m) {
+		if (kind(m) == Move.STEP) { return new Move(x1(m), y1(m), x2(m), y2(m)); }
+		if (kind(m) == Move.ADD) { return new Move(x1(m), y1(m)); }
+		return null;
+	}
+	/**
+   	* fromMove() packs a Move object.
+   	* Unusual Conditions: the coordinates of m are assumed to be on the board
+   	* @param m is the move to pack
+   	* @return returns the packed move
+   	**/
+	public static int fromMove(Move m) {
+		if (m.moveKind == Move.STEP) { return step(m.x1, m.y1, m.x2, m.y2); }
+		if (m.moveKind == Move.ADD) { return add(m.x1, m.y1); }
+		return NONE;
+	}
+}
@@ -0,0 +1,229 @@
+package player;
+
+/**
+ *  ProofSolver is a proof-number search that proves (or disproves) that the
+ *  side to move can force a network within a given number of its own moves,
+ *  whatever the opponent does.  It needs no evaluation function: a position
+ *  is won when hasValidNetwork() says so.  A move that completes a network
+ *  for the opponent loses, even if it completes the mover's own as well.
+ *
+ *  The search tree lives in parallel arrays sized by the node budget given
+ *  to the constructor, so the budget bounds both time and memory.  When the
+ *  tree is full the result is UNKNOWN and the caller should search normally.
+ */
+public class ProofSolver {
+
+	public static final int PROVEN = 1;
+	public static final int DISPROVEN = 0;
+	public static final int UNKNOWN = -1;
+
+	protected static final int INFINITY = Integer.MAX_VALUE;
+
+	protected int capacity;
+	protected int size;
+	protected int[] pn;
+	protected int[] dn;
+	protected int[] move;
+	protected int[] parent;
+	protected int[] firstChild;
+	protected int[] childCount;
+
+	protected GameBoard board = new GameBoard();
+	protected int[] buffer = new int[GameBoard.MAX_MOVES];
+	protected int attacker;
+	protected int maxPlies;
+	/* System.nanoTime() after which solve() gives up, 0 for none. */
+	protected long deadline;
+
+	/**
+   	* ProofSolver() returns a solver whose tree holds at most maxNodes nodes.
+   	* @param maxNodes is the node budget of every solve()
+   	* @return this method has no return value
+   	**/
+	public ProofSolver(int maxNodes) {
+		capacity = Math.max(maxNodes, 1);
+		pn = new int[capacity];
+		dn = new int[capacity];
+		move = new int[capacity];
+		parent = new int[capacity];
+		firstChild = new int[capacity];
+		childCount = new int[capacity];
+	}
+	/**
+   	* setDeadline() limits every following solve() in time as well as nodes.
+   	* @param deadline is the System.nanoTime() to stop at, 0 for no limit
+   	* @return no return value
+   	**/
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+	/**
+   	* solve() tries to prove that side can force a network within maxMoves of
+   	* its own moves from the given position.
+   	* Unusual Conditions: neither side may already have a network
+   	* @param position is the position to solve (it is not modified), side is
+   	* the side to move, maxMoves is the number of moves side may take
+   	* @return returns PROVEN, DISPROVEN, or UNKNOWN if the node budget or the
+   	* time ran out
+   	**/
+	public int solve(GameBoard position, int side, int maxMoves) throws InvalidNodeException {
+		board.copyFrom(position);
+		attacker = side;
+		maxPlies = 2 * maxMoves - 1;
+		size = 1;
+		pn[0] = 1;
+		dn[0] = 1;
+		move[0] = PackedMove.NONE;
+		parent[0] = -1;
+		childCount[0] = 0;
+		int[] path = new int[maxPlies + 1];
+		while (pn[0] != 0 && dn[0] != 0) {
+			// Walk down to the most-proving node, playing its moves.
+			int node = 0;
+			int ply = 0;
+			while (childCount[node] > 0) {
+				node = selectChild(node, ply);
+				board.performMove(mover(ply), move[node]);
+				path[ply++] = node;
+			}
+			boolean expanded = (deadline == 0 || System.nanoTime() < deadline) && expand(node, ply);
+			for (int i = ply - 1; i >= 0; i--) {
+				board.undoMove(mover(i), move[path[i]]);
+			}
+			if (!expanded) {
+				return UNKNOWN;
+			}
+			for (; node >= 0; node = parent[node]) {
+				update(node, ply--);
+			}
+		}
+		return (pn[0] == 0) ? PROVEN : DISPROVEN;
+	}
+	/**
+   	* line() returns the proven line found by the last solve(): the attacker's
+   	* winning moves and, between them, the defence the proof tree tried
+   	* first.  It ends with the attacker's move that completes the network.
+   	* Unusual Conditions: only meaningful after solve() returned PROVEN
+   	* @param this method has no parameters
+   	* @return returns the line as packed moves
+   	**/
+	public int[] line() {
+		int length = 0;
+		int[] moves = new int[maxPlies];
+		int node = 0;
+		for (int ply = 0; childCount[node] > 0 && pn[node] == 0; ply++) {
+			int next = -1;
+			for (int c = firstChild[node]; c < firstChild[node] + childCount[node]; c++) {
+				if (pn[c] == 0) { next = c; break; }
+			}
+			node = next;
+			moves[length++] = move[node];
+		}
+		int[] result = new int[length];
+		System.arraycopy(moves, 0, result, 0, length);
+		return result;
+	}
+	/**
+   	* bestMove() returns the first move of the proven line.
+   	* Unusual Conditions: only meaningful after solve() returned PROVEN
+   	* @param this method has no parameters
+   	* @return returns the packed move, or PackedMove.NONE
+   	**/
+	public int bestMove() {
+		for (int c = firstChild[0]; c < firstChild[0] + childCount[0]; c++) {
+			if (pn[c] == 0) { return move[c]; }
+		}
+		return PackedMove.NONE;
+	}
+
+	public int nodes() { return size; }
+
+	/**
+   	* expand() generates the children of a leaf at the given ply and scores
+   	* the ones that end the game.
+   	* Unusual Conditions: the board must be at the leaf's position
+   	* @param node is the leaf, ply is its distance from the root
+   	* @return returns false if the tree has no room for the children
+   	**/
+	protected boolean expand(int node, int ply) throws InvalidNodeException {
+		int side = mover(ply);
+		int other = (side + 1) % 2;
+		int type = (board.chipCount(side) == 10) ? Move.STEP : Move.ADD;
+		int count = board.moveFinder(side, type, buffer);
+		if (size + count > capacity) {
+			return false;
+		}
+		if (count == 0) {
+			// No legal move: not a forced network.
+			pn[node] = INFINITY;
+			dn[node] = 0;
+			return true;
+		}
+		firstChild[node] = size;
+		childCount[node] = count;
+		for (int i = 0; i < count; i++) {
+			int child = size++;
+			move[child] = buffer[i];
+			parent[child] = node;
+			childCount[child] = 0;
+			board.performMove(side, buffer[i]);
+			int winner = -1;
+			if (board.hasValidNetwork(other)) { winner = other; }
+			else if (board.hasValidNetwork(side)) { winner = side; }
+			board.undoMove(side, buffer[i]);
+			if (winner == attacker) {
+				pn[child] = 0;
+				dn[child] = INFINITY;
+			}
+			else if (winner >= 0 || ply + 1 >= maxPlies) {
+				pn[child] = INFINITY;
+				dn[child] = 0;
+			}
+			else {
+				pn[child] = 1;
+				dn[child] = 1;
+			}
+		}
+		return true;
+	}
+	/**
+   	* update() recomputes an interior node's numbers from its children: at
+   	* the attacker's nodes pn is the smallest child pn and dn the sum of the
+   	* child dns, and the other way round at the defender's nodes.
+   	* @param node is the node, ply is its distance from the root
+   	* @return no return value
+   	**/
+	protected void update(int node, int ply) {
+		if (childCount[node] == 0) {
+			return;
+		}
+		int min = INFINITY;
+		int sum = 0;
+		boolean or = (mover(ply) == attacker);
+		for (int c = firstChild[node]; c < firstChild[node] + childCount[node]; c++) {
+			int mine = or ? pn[c] : dn[c];
+			int theirs = or ? dn[c] : pn[c];
+			min = Math.min(min, mine);
+			sum = (theirs == INFINITY || sum >= INFINITY - theirs) ? INFINITY : sum + theirs;
+		}
+		pn[node] = or ? min : sum;
+		dn[node] = or ? sum : min;
+	}
+	/**
+   	* selectChild() picks the child to follow toward the most-proving node:
+   	* the one with the smallest pn at the attacker's nodes, the smallest dn
+   	* at the defender's.
+   	* @param node is an expanded node, ply is its distance from the root
+   	* @return returns the child's index
+   	**/
+	protected int selectChild(int node, int ply) {
+		boolean or = (mover(ply) == attacker);
+		int best = firstChild[node];
+		for (int c = best + 1; c < firstChild[node] + childCount[node]; c++) {
+			if (or ? pn[c] < pn[best] : dn[c] < dn[best]) { best = c; }
+		}
+		return best;
+	}
+
+	protected int mover(int ply) { return (ply % 2 == 0) ? attacker : (attacker + 1) % 2; }
+}
@@ -0,0 +1,30 @@
+package player;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *  A RootSearch runs GameBoard.findBestMove() for a player inside the
+ *  player's ForkJoinPool, so that split points below the root can fork.
+ */
+class RootSearch extends RecursiveTask<Best> {
+
+	private static final long serialVersionUID = 1L;
+
+	protected MachinePlayer player;
+	protected double alpha;
+	protected double beta;
+
+	RootSearch(MachinePlayer player, double alpha, double beta) {
+		this.player = player;
+		this.alpha = alpha;
+		this.beta = beta;
+	}
+
+	protected Best compute() {
+		try {
+			return player.gameboard.findBestMove(player.color, alpha, beta, 0, player);
+		} catch (InvalidNodeException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
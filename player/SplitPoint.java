@@ -0,0 +1,161 @@
+package player;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  A SplitPoint is a node of the game tree whose younger brothers are being
+ *  searched in parallel, Young Brothers Wait style: GameBoard.search() gets
+ *  here only after the eldest brother (the first move) has been searched
+ *  serially.  Each remaining move becomes a SiblingTask on the player's
+ *  ForkJoinPool and is searched on a copy of the board.
+ *
+ *  Normally the window is shared: every finished sibling can raise alpha (or
+ *  lower beta) for the siblings that start after it, and a cutoff stops the
+ *  siblings still running.  In deterministic mode every sibling is searched
+ *  with the window the eldest brother left and the results are merged in move
+ *  order, so node counts are the same on every run.
+ */
+class SplitPoint {
+
+	protected MachinePlayer owner;
+	protected SplitPoint parent;
+	protected int side;
+	protected int depth;
+	protected boolean maximizing;
+	protected boolean deterministic;
+
+	protected volatile double alpha;
+	protected volatile double beta;
+	protected volatile boolean cut;
+	protected double bestScore;
+	protected int bestMove;
+
+	/**
+   	* SplitPoint() records the state of a node after its eldest brother.
+   	* @param owner is the player searching the node, side is the side to move,
+   	* depth is the node's distance from the root, alpha/beta is the current
+   	* window, bestScore and bestMove are the best result so far
+   	* @return this method has no return value
+   	**/
+	SplitPoint(MachinePlayer owner, int side, int depth, double alpha, double beta,
+			double bestScore, int bestMove) {
+		this.owner = owner;
+		this.parent = owner.split;
+		this.side = side;
+		this.depth = depth;
+		this.maximizing = (side == owner.color);
+		this.deterministic = owner.root().deterministic;
+		this.alpha = alpha;
+		this.beta = beta;
+		this.bestScore = bestScore;
+		this.bestMove = bestMove;
+	}
+	/**
+   	* search() searches moves[from..count-1] in parallel and waits for all of
+   	* them.  Afterwards bestScore, bestMove and cut hold the node's result.
+   	* Unusual Conditions: must run inside the player's ForkJoinPool; board
+   	* must not change until search() returns
+   	* @param board is the owner's board, at this node, moves are the node's
+   	* moves in search order, from is the first move not yet searched
+   	* @return no return value
+   	**/
+	protected void search(GameBoard board, int[] moves, int from, int count) {
+		if (!deterministic) {
+			SiblingTask[] tasks = new SiblingTask[count - from];
+			for (int i = from; i < count; i++) {
+				tasks[i - from] = new SiblingTask(this, board, moves[i]);
+			}
+			RecursiveAction.invokeAll(tasks);
+			return;
+		}
+		// Deterministic: one batch of "parallelism" siblings at a time, all
+		// with the same window, merged in move order before the next batch.
+		int batch = owner.root().pool.getParallelism();
+		for (int start = from; start < count && !isCut(); start += batch) {
+			int end = Math.min(start + batch, count);
+			SiblingTask[] tasks = new SiblingTask[end - start];
+			for (int i = start; i < end; i++) {
+				tasks[i - start] = new SiblingTask(this, board, moves[i]);
+			}
+			RecursiveAction.invokeAll(tasks);
+			for (int i = 0; i < tasks.length; i++) {
+				if (update(tasks[i].move, tasks[i].reply)) { break; }
+			}
+		}
+	}
+	/**
+   	* update() merges one sibling's result into the node.
+   	* @param move is the sibling's move, reply is its score
+   	* @return returns true if the node is now cut off
+   	**/
+	protected synchronized boolean update(int move, double reply) {
+		if (cut) {
+			return true;
+		}
+		if (maximizing && reply > bestScore) {
+			bestScore = reply;
+			bestMove = move;
+			alpha = reply;
+		}
+		else if (!maximizing && reply < bestScore) {
+			bestScore = reply;
+			bestMove = move;
+			beta = reply;
+		}
+		if (alpha >= beta) {
+			cut = true;
+		}
+		return cut;
+	}
+	/**
+   	* isCut() tells a sibling's search whether its result is no longer
+   	* needed: this node or one above it was cut off, or time ran out.
+   	* @param this method has no parameters
+   	* @return returns true if the search under this node should stop
+   	**/
+	protected boolean isCut() {
+		return cut || owner.root().timeUp || (parent != null && parent.isCut());
+	}
+}
+
+/**
+ *  A SiblingTask searches one younger brother of a SplitPoint on a borrowed
+ *  search context (a helper MachinePlayer with its own board).
+ */
+class SiblingTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	protected SplitPoint split;
+	protected GameBoard board;
+	protected int move;
+	protected double reply;
+
+	SiblingTask(SplitPoint split, GameBoard board, int move) {
+		this.split = split;
+		this.board = board;
+		this.move = move;
+	}
+
+	protected void compute() {
+		if (split.isCut() && !split.deterministic) {
+			return;
+		}
+		MachinePlayer context = split.owner.root().acquireContext(split.owner, split);
+		try {
+			GameBoard copy = context.gameboard;
+			copy.copyFrom(board);
+			copy.performMove(split.side, move);
+			double alpha = split.alpha;
+			double beta = split.beta;
+			reply = copy.searchReply(split.side, alpha, beta, split.depth, context, false);
+			if (!split.deterministic && !context.stopped()) {
+				split.update(move, reply);
+			}
+		} catch (InvalidNodeException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			split.owner.root().releaseContext(context);
+		}
+	}
+}
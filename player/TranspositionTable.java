@@ -0,0 +1,121 @@
+package player;
+
+import java.util.Arrays;
+
+/**
+ *  TranspositionTable remembers search results by position key.  It is
+ *  lock-free so several search threads can share it: every entry is two
+ *  longs, the key XORed with the data and the data itself.  A reader only
+ *  trusts an entry whose two words XOR back to the key it asked for, so an
+ *  entry torn by two threads writing at once reads as a miss.
+ *
+ *  GameBoard.search() keys it by GameBoard.canonicalKey(), with the best
+ *  move stored in the canonical orientation.
+ *
+ *  Data word layout: bits 0-31 score (as a float), 32-45 best move (packed,
+ *  see PackedMove), 46-52 remaining depth, 53-54 bound, 55-62 generation.
+ *  The generation is never 0, so a data word of 0 means "empty".
+ */
+public class TranspositionTable {
+
+	public static final int EXACT = 0;
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+
+	/* Default size: 2^18 entries, 4 megabytes. */
+	protected static final int DEFAULT_BITS = 18;
+
+	protected int mask;
+	protected long[] entries;
+	protected int generation;
+
+	/**
+   	* TranspositionTable() returns an empty table with 2^DEFAULT_BITS entries.
+   	* @param this method has no parameters
+   	* @return this method has no return value
+   	**/
+	public TranspositionTable() {
+		this(DEFAULT_BITS);
+	}
+	/**
+   	* TranspositionTable() returns an empty table with 2^sizeBits entries.
+   	* @param sizeBits is the log2 of the number of entries
+   	* @return this method has no return value
+   	**/
+	public TranspositionTable(int sizeBits) {
+		int size = 1 << sizeBits;
+		mask = size - 1;
+		entries = new long[2 * size];
+		generation = 1;
+	}
+	/**
+   	* newSearch() starts a new generation.  Entries left over from earlier
+   	* searches stay usable but lose their protection against replacement.
+   	* Unusual Conditions: call only while no search is running
+   	* @param this method has no parameters
+   	* @return no return value
+   	**/
+	public void newSearch() {
+		generation = (generation == 255) ? 1 : generation + 1;
+	}
+	/**
+   	* probe() looks up the entry for a position.
+   	* @param key is the Zobrist key of the position
+   	* @return returns the entry's data word (decode it with score(), bound(),
+   	* depth() and move()), or 0 if the position is not stored
+   	**/
+	public long probe(long key) {
+		int slot = 2 * ((int) key & mask);
+		long data = entries[slot + 1];
+		if (data != 0 && (entries[slot] ^ data) == key) {
+			return data;
+		}
+		return 0;
+	}
+	/**
+   	* store() records the result of a search.  The slot is overwritten if it
+   	* is empty, holds the same position, is from an older generation, or was
+   	* searched no deeper than the new result (depth-preferred replacement).
+   	* @param key is the Zobrist key of the position
+   	* score is the score found, bound is EXACT, LOWER or UPPER,
+   	* depth is the remaining search depth, move is the best move found as a
+   	* packed move (PackedMove.NONE if there is none)
+   	* @return no return value
+   	**/
+	public void store(long key, double score, int bound, int depth, int move) {
+		int slot = 2 * ((int) key & mask);
+		long old = entries[slot + 1];
+		boolean sameKey = old != 0 && (entries[slot] ^ old) == key;
+		if (old == 0 || sameKey || generation(old) != generation || depth >= depth(old)) {
+			if (move == PackedMove.NONE && sameKey) { move = move(old); }
+			long data = (Float.floatToIntBits((float) score) & 0xFFFFFFFFL)
+					| (long) move << 32
+					| (long) Math.min(depth, 127) << 46
+					| (long) bound << 53
+					| (long) generation << 55;
+			entries[slot] = key ^ data;
+			entries[slot + 1] = data;
+		}
+	}
+
+	public static double score(long data) { return Float.intBitsToFloat((int) data); }
+
+	public static int move(long data) { return (int) (data >>> 32) & 0x3FFF; }
+
+	public static int depth(long data) { return (int) (data >>> 46) & 0x7F; }
+
+	public static int bound(long data) { return (int) (data >>> 53) & 0x3; }
+
+	public static int generation(long data) { return (int) (data >>> 55) & 0xFF; }
+
+	/**
+   	* clear() empties the table.
+   	* Unusual Conditions: call only while no search is running
+   	* @param this method has no parameters
+   	* @return no return value
+   	**/
+	public void clear() {
+		Arrays.fill(entries, 0);
+		generation = 1;
+	}
+}